@@ -29,6 +29,13 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     this.mapper = mapper;
   }
 
+  // parked requests like /generator/myResults/wait are answered on an async dispatch, which
+  // starts with an empty security context
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
   @Override
   protected void doFilterInternal(
       HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
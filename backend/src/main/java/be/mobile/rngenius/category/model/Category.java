@@ -0,0 +1,57 @@
+package be.mobile.rngenius.category.model;
+
+import be.mobile.rngenius.generator.model.Generator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// Each generator keeps its own dictionary of category names, options refer to them by id
+@Entity(name = "categories")
+@Table(
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_categories_generator_name",
+            columnNames = {"generator_id", "name"}))
+public class Category {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  public Long id;
+
+  private String name;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "generator_id")
+  private Generator generator;
+
+  public Category(String name, Generator generator) {
+    this.name = name;
+    this.generator = generator;
+  }
+
+  public Category() {}
+
+  public String getName() {
+    return name;
+  }
+
+  @JsonIgnore
+  public Generator getGenerator() {
+    return generator;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public void setGenerator(Generator generator) {
+    this.generator = generator;
+  }
+}
@@ -0,0 +1,24 @@
+package be.mobile.rngenius.category.repo;
+
+import be.mobile.rngenius.category.model.Category;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+  Category findCategoryByGeneratorIdAndName(Long generatorId, String name);
+
+  List<Category> findCategoriesByGeneratorIdAndNameIn(Long generatorId, Collection<String> names);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "DELETE FROM categories c WHERE c.generator.id = ?1"
+          + " AND c.id NOT IN (SELECT k.id FROM options o JOIN o.categories k"
+          + " WHERE o.generator.id = ?1)")
+  void deleteUnusedCategoriesByGeneratorId(Long generatorId);
+}
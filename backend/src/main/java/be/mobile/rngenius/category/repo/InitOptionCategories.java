@@ -0,0 +1,72 @@
+package be.mobile.rngenius.category.repo;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Moves the category names options kept in their own collection table into the per-generator
+// categories. Schema updates leave that table behind, so it is dropped once its rows are moved and
+// later startups find nothing to do.
+@Component
+public class InitOptionCategories {
+
+  private static final String OLD_TABLE = "options_categories";
+
+  private static final String INSERT_CATEGORIES =
+      "INSERT INTO categories (name, generator_id)"
+          + " SELECT DISTINCT oc.categories, o.generator_id FROM options_categories oc"
+          + " JOIN options o ON o.id = oc.options_id"
+          + " WHERE NOT EXISTS (SELECT 1 FROM categories c"
+          + " WHERE c.generator_id = o.generator_id AND c.name = oc.categories)";
+
+  private static final String INSERT_OPTION_CATEGORIES =
+      "INSERT INTO option_categories (option_id, category_id)"
+          + " SELECT DISTINCT oc.options_id, c.id FROM options_categories oc"
+          + " JOIN options o ON o.id = oc.options_id"
+          + " JOIN categories c ON c.generator_id = o.generator_id AND c.name = oc.categories"
+          + " WHERE NOT EXISTS (SELECT 1 FROM option_categories x"
+          + " WHERE x.option_id = oc.options_id AND x.category_id = c.id)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  public void moveOptionCategories() {
+    if (!oldTableExists()) {
+      return;
+    }
+
+    // both inserts skip what is already there, so an interrupted run can simply go again
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.update(INSERT_CATEGORIES);
+          jdbcTemplate.update(INSERT_OPTION_CATEGORIES);
+        });
+    jdbcTemplate.execute("DROP TABLE " + OLD_TABLE);
+  }
+
+  private boolean oldTableExists() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.execute(
+            (ConnectionCallback<Boolean>)
+                connection -> {
+                  DatabaseMetaData metaData = connection.getMetaData();
+                  // unquoted names are stored upper case by some databases, lower case by others
+                  for (String name : new String[] {OLD_TABLE.toUpperCase(), OLD_TABLE}) {
+                    try (ResultSet tables =
+                        metaData.getTables(null, null, name, new String[] {"TABLE"})) {
+                      if (tables.next()) {
+                        return true;
+                      }
+                    }
+                  }
+                  return false;
+                }));
+  }
+}
@@ -1,11 +1,20 @@
 package be.mobile.rngenius.generator.controller;
 
 import be.mobile.rngenius.auth.jwt.JwtUtil;
+import be.mobile.rngenius.generator.model.DrawMode;
 import be.mobile.rngenius.generator.model.Generator;
 import be.mobile.rngenius.generator.model.GeneratorException;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.generator.model.response.ChangesRes;
+import be.mobile.rngenius.generator.model.response.GeneratorDetailRes;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.generator.model.response.SimulationRes;
+import be.mobile.rngenius.generator.model.response.VerificationRes;
 import be.mobile.rngenius.generator.service.GeneratorService;
 import be.mobile.rngenius.generator.service.GeneratorServiceAuthorizationException;
 import be.mobile.rngenius.generator.service.GeneratorServiceException;
+import be.mobile.rngenius.generator.service.UserDataVersions;
+import be.mobile.rngenius.generator.stream.ActivityStream;
 import be.mobile.rngenius.option.model.Option;
 import be.mobile.rngenius.result.model.Result;
 import be.mobile.rngenius.user.model.UserException;
@@ -16,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -31,6 +41,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @CrossOrigin(origins = {"*"})
@@ -39,20 +52,46 @@ public class GeneratorRestController {
 
   @Autowired private GeneratorService generatorService;
 
+  @Autowired private UserDataVersions userDataVersions;
+
+  @Autowired private ActivityStream activityStream;
+
   @Autowired private JwtUtil jwtUtil;
 
   @GetMapping("/{id}")
-  public Generator getGenerator(@PathVariable Long id, @RequestHeader("Authorization") String token)
+  public GeneratorDetailRes getGenerator(
+      @PathVariable Long id, @RequestHeader("Authorization") String token)
       throws GeneratorServiceException, GeneratorServiceAuthorizationException {
     Long requesterId = jwtUtil.retrieveRequesterId(token);
-    return generatorService.getGeneratorById(id, requesterId);
+    return generatorService.getGeneratorDetail(id, requesterId);
   }
 
   @GetMapping("/myGenerators")
-  public List<Generator> getMyGenerators(@RequestHeader("Authorization") String token)
+  public ResponseEntity<List<GeneratorSummary>> getMyGenerators(
+      @RequestHeader("Authorization") String token, WebRequest request)
       throws GeneratorServiceException {
     Long requesterId = jwtUtil.retrieveRequesterId(token);
-    return generatorService.getMyGenerators(requesterId);
+
+    // the version is read before the data, so the tag can never claim newer data than is sent
+    String eTag = userDataVersions.eTag(requesterId);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+
+    return ResponseEntity.ok().eTag(eTag).body(generatorService.getMyGenerators(requesterId));
+  }
+
+  @GetMapping("/changes")
+  public ChangesRes getChanges(
+      @RequestParam(defaultValue = "0") long since, @RequestHeader("Authorization") String token) {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.getChangesSince(since, requesterId);
+  }
+
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@RequestHeader("Authorization") String token) {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return activityStream.subscribe(requesterId);
   }
 
   @PostMapping("/add")
@@ -86,6 +125,17 @@ public class GeneratorRestController {
     return ResponseEntity.ok().build();
   }
 
+  @PutMapping("/drawMode/{id}")
+  public ResponseEntity<String> setDrawMode(
+      @PathVariable Long id,
+      @RequestParam DrawMode mode,
+      @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    generatorService.setDrawMode(id, mode, requesterId);
+    return ResponseEntity.ok().build();
+  }
+
   @PutMapping("/addOption/{generatorId}")
   public ResponseEntity<String> addOption(
       @PathVariable Long generatorId,
@@ -118,13 +168,58 @@ public class GeneratorRestController {
   }
 
   @GetMapping("/generate/{id}")
-  public Option generate(@PathVariable Long id, @RequestHeader("Authorization") String token)
+  public Option generate(
+      @PathVariable Long id,
+      @RequestParam(defaultValue = "") List<String> categories,
+      @RequestHeader("Authorization") String token)
       throws GeneratorServiceException,
           GeneratorException,
           GeneratorServiceAuthorizationException,
           UserServiceException {
     Long requesterId = jwtUtil.retrieveRequesterId(token);
-    return generatorService.generateOption(id, requesterId);
+    return generatorService.generateOption(id, categories, requesterId);
+  }
+
+  @GetMapping(value = "/generate/{id}", params = "count")
+  public List<Option> generate(
+      @PathVariable Long id,
+      @RequestParam int count,
+      @RequestParam(defaultValue = "") List<String> categories,
+      @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException,
+          GeneratorException,
+          GeneratorServiceAuthorizationException,
+          UserServiceException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.generateOptions(id, count, categories, requesterId);
+  }
+
+  @GetMapping("/{id}/simulate")
+  public SimulationRes simulate(
+      @PathVariable Long id,
+      @RequestParam(defaultValue = "1000000") int draws,
+      @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.simulateDraws(id, draws, requesterId);
+  }
+
+  @GetMapping("/{id}/stats")
+  public GeneratorStatsRes getStats(
+      @PathVariable Long id,
+      @RequestParam(defaultValue = "30") int days,
+      @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.getGeneratorStats(id, days, requesterId);
+  }
+
+  @GetMapping("/verify/{resultId}")
+  public VerificationRes verify(
+      @PathVariable Long resultId, @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.verifyResult(resultId, requesterId);
   }
 
   @PutMapping("/favorise/{optionId}")
@@ -190,10 +285,23 @@ public class GeneratorRestController {
   }
 
   @GetMapping("/myResults")
-  public List<Result> getMyResults(@RequestHeader("Authorization") String token)
+  public List<Result> getMyResults(
+      @RequestParam(required = false) Long before,
+      @RequestParam(defaultValue = "50") int limit,
+      @RequestHeader("Authorization") String token)
+      throws GeneratorServiceException {
+    Long requesterId = jwtUtil.retrieveRequesterId(token);
+    return generatorService.getMyNotifiedResults(before, limit, requesterId);
+  }
+
+  @GetMapping("/myResults/wait")
+  public DeferredResult<List<Result>> waitForMyResults(
+      @RequestParam long after,
+      @RequestParam(defaultValue = "30s") String timeout,
+      @RequestHeader("Authorization") String token)
       throws GeneratorServiceException {
     Long requesterId = jwtUtil.retrieveRequesterId(token);
-    return generatorService.getMyNotifiedResults(requesterId);
+    return generatorService.waitForMyNotifiedResults(after, timeout, requesterId);
   }
 
   @PutMapping("/favoriseCategory/{generatorId}")
@@ -0,0 +1,15 @@
+package be.mobile.rngenius.generator.event;
+
+public enum ActivityType {
+  GENERATOR_CHANGED,
+  GENERATOR_DELETED,
+  OPTION_ADDED,
+  OPTION_CHANGED,
+  OPTION_REMOVED,
+  SELECTION_TOGGLED,
+  PARTICIPANT_JOINED,
+  PARTICIPANT_LEFT,
+  RESULT,
+  // sent instead of the dropped events when a subscriber could not keep up
+  RESYNC
+}
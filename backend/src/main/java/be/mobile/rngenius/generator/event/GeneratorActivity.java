@@ -0,0 +1,4 @@
+package be.mobile.rngenius.generator.event;
+
+// What happened, as sent to stream subscribers. The id is the option, user or result it concerns.
+public record GeneratorActivity(ActivityType type, Long generatorId, Long id) {}
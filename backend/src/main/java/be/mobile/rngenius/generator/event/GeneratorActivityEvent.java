@@ -0,0 +1,5 @@
+package be.mobile.rngenius.generator.event;
+
+import java.util.Set;
+
+public record GeneratorActivityEvent(Set<Long> userIds, GeneratorActivity activity) {}
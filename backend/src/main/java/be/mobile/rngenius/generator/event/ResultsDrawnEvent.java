@@ -0,0 +1,8 @@
+package be.mobile.rngenius.generator.event;
+
+import be.mobile.rngenius.result.model.Result;
+import java.util.List;
+import java.util.Set;
+
+public record ResultsDrawnEvent(
+    Long generatorId, List<Result> results, Set<Long> notifiedUserIds, Set<Long> affectedUserIds) {}
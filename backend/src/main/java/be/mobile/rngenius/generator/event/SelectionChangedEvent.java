@@ -0,0 +1,3 @@
+package be.mobile.rngenius.generator.event;
+
+public record SelectionChangedEvent(Long generatorId, Long optionId) {}
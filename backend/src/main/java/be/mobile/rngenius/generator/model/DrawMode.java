@@ -0,0 +1,7 @@
+package be.mobile.rngenius.generator.model;
+
+public enum DrawMode {
+  RANDOM,
+  BAG,
+  VERIFIABLE
+}
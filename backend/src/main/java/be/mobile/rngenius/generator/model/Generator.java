@@ -1,22 +1,41 @@
 package be.mobile.rngenius.generator.model;
 
+import be.mobile.rngenius.category.model.Category;
 import be.mobile.rngenius.option.model.Option;
 import be.mobile.rngenius.participant.model.Participant;
+import be.mobile.rngenius.sync.model.ChangeSequenceListener;
+import be.mobile.rngenius.sync.model.Sequenced;
 import be.mobile.rngenius.user.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
 
 @Entity(name = "generators")
-public class Generator {
+@NamedEntityGraph(
+    name = "Generator.authorize",
+    attributeNodes = {
+      @NamedAttributeNode("user"),
+      @NamedAttributeNode(value = "participants", subgraph = "participant")
+    },
+    subgraphs = @NamedSubgraph(name = "participant", attributeNodes = @NamedAttributeNode("user")))
+@EntityListeners(ChangeSequenceListener.class)
+public class Generator implements Sequenced {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,16 +47,26 @@ public class Generator {
   @Positive(message = "Icon number must be a positive number")
   private int iconNumber;
 
+  @Enumerated(EnumType.STRING)
+  private DrawMode drawMode = DrawMode.RANDOM;
+
+  private Long changeSeq;
+
   @ManyToOne
   @JoinColumn(name = "user_id")
   private User user;
 
   @OneToMany(mappedBy = "generator", cascade = CascadeType.REMOVE)
+  @BatchSize(size = 64)
   private List<Option> options;
 
   @OneToMany(mappedBy = "generator", cascade = CascadeType.REMOVE)
+  @BatchSize(size = 64)
   private List<Participant> participants;
 
+  @OneToMany(mappedBy = "generator", cascade = CascadeType.REMOVE)
+  private List<Category> categories;
+
   public Generator(String title, int iconNumber) {
     this.title = title;
     this.iconNumber = iconNumber;
@@ -53,6 +82,11 @@ public class Generator {
     return iconNumber;
   }
 
+  public DrawMode getDrawMode() {
+    // generators created before draw modes existed have no value yet
+    return drawMode == null ? DrawMode.RANDOM : drawMode;
+  }
+
   public User getUser() {
     return user;
   }
@@ -65,6 +99,11 @@ public class Generator {
     return participants;
   }
 
+  @JsonIgnore
+  public List<Category> getCategories() {
+    return categories;
+  }
+
   public void setTitle(String title) {
     this.title = title;
   }
@@ -73,6 +112,10 @@ public class Generator {
     this.iconNumber = iconNumber;
   }
 
+  public void setDrawMode(DrawMode drawMode) {
+    this.drawMode = drawMode;
+  }
+
   public void setUser(User user) {
     this.user = user;
   }
@@ -84,4 +127,15 @@ public class Generator {
   public void setParticipants(List<Participant> participants) {
     this.participants = participants;
   }
+
+  @JsonIgnore
+  @Override
+  public Long getChangeSeq() {
+    return changeSeq;
+  }
+
+  @Override
+  public void setChangeSeq(Long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
 }
@@ -0,0 +1,39 @@
+package be.mobile.rngenius.generator.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+
+@Entity(name = "generator_bags")
+public class GeneratorBag {
+
+  @Id public Long generatorId;
+
+  @Lob private byte[] optionIds;
+
+  private int cursor;
+
+  public GeneratorBag(Long generatorId, byte[] optionIds, int cursor) {
+    this.generatorId = generatorId;
+    this.optionIds = optionIds;
+    this.cursor = cursor;
+  }
+
+  public GeneratorBag() {}
+
+  public byte[] getOptionIds() {
+    return optionIds;
+  }
+
+  public int getCursor() {
+    return cursor;
+  }
+
+  public void setOptionIds(byte[] optionIds) {
+    this.optionIds = optionIds;
+  }
+
+  public void setCursor(int cursor) {
+    this.cursor = cursor;
+  }
+}
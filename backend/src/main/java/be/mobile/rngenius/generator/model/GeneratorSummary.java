@@ -0,0 +1,20 @@
+package be.mobile.rngenius.generator.model;
+
+// What the generator list needs, without the options, participants and selections behind it.
+public interface GeneratorSummary {
+
+  Long getId();
+
+  String getTitle();
+
+  int getIconNumber();
+
+  String getOwnerName();
+
+  long getOptionCount();
+
+  long getParticipantCount();
+
+  // the requester's own notification setting
+  boolean getNotifications();
+}
@@ -0,0 +1,18 @@
+package be.mobile.rngenius.generator.model;
+
+// Everything the generator summaries of a user depend on. Changes show up in the newest change
+// sequence, deletions in the counts.
+public interface UserDataVersion {
+
+  long getGeneratorCount();
+
+  long getGeneratorSeq();
+
+  long getOptionCount();
+
+  long getOptionSeq();
+
+  long getParticipantCount();
+
+  long getParticipantSeq();
+}
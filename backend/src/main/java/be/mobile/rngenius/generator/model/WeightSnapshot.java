@@ -0,0 +1,73 @@
+package be.mobile.rngenius.generator.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// The option weights a verifiable draw was made against, stored once per distinct weighting.
+@Entity(name = "weight_snapshots")
+public class WeightSnapshot {
+
+  @Id public String hash;
+
+  private Long generatorId;
+
+  @Lob private String weights;
+
+  public WeightSnapshot(Long generatorId, long[] optionIds, long[] weights) {
+    this.generatorId = generatorId;
+    this.weights = encode(optionIds, weights);
+    this.hash = hash(this.weights);
+  }
+
+  public WeightSnapshot() {}
+
+  public Long getGeneratorId() {
+    return generatorId;
+  }
+
+  public String getWeights() {
+    return weights;
+  }
+
+  public long[] getOptionIds() {
+    return decode(0);
+  }
+
+  public long[] getOptionWeights() {
+    return decode(1);
+  }
+
+  private long[] decode(int part) {
+    String[] entries = weights.split(",");
+    long[] values = new long[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      values[i] = Long.parseLong(entries[i].split(":")[part]);
+    }
+    return values;
+  }
+
+  private static String encode(long[] optionIds, long[] weights) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < optionIds.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append(optionIds[i]).append(':').append(weights[i]);
+    }
+    return builder.toString();
+  }
+
+  private static String hash(String weights) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(weights.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
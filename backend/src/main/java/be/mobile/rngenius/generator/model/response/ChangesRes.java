@@ -0,0 +1,34 @@
+package be.mobile.rngenius.generator.model.response;
+
+import be.mobile.rngenius.sync.model.Tombstone;
+import java.util.List;
+
+// Everything the requester can see that changed after `since`. Clients apply the tombstones
+// before the rest, since deleted rows are never listed again, and pass `version` as `since` next
+// time. On a full sync they replace their cached generators instead of merging.
+public class ChangesRes {
+  public long version;
+  public boolean full;
+  public List<GeneratorSyncRes> generators;
+  public List<OptionSyncRes> options;
+  public List<ParticipantSyncRes> participants;
+  public List<SelectionSyncRes> selections;
+  public List<Tombstone> tombstones;
+
+  public ChangesRes(
+      long version,
+      boolean full,
+      List<GeneratorSyncRes> generators,
+      List<OptionSyncRes> options,
+      List<ParticipantSyncRes> participants,
+      List<SelectionSyncRes> selections,
+      List<Tombstone> tombstones) {
+    this.version = version;
+    this.full = full;
+    this.generators = generators;
+    this.options = options;
+    this.participants = participants;
+    this.selections = selections;
+    this.tombstones = tombstones;
+  }
+}
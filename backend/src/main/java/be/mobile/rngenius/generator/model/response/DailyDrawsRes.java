@@ -0,0 +1,13 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.time.LocalDate;
+
+public class DailyDrawsRes {
+  public LocalDate date;
+  public long draws;
+
+  public DailyDrawsRes(LocalDate date, long draws) {
+    this.date = date;
+    this.draws = draws;
+  }
+}
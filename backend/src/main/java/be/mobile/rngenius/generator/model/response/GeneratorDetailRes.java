@@ -0,0 +1,34 @@
+package be.mobile.rngenius.generator.model.response;
+
+import be.mobile.rngenius.generator.model.DrawMode;
+import be.mobile.rngenius.user.model.User;
+import java.util.List;
+
+// A generator as one participant sees it: their own selections, and only counts and the
+// favorised or excluded marks of everyone else.
+public class GeneratorDetailRes {
+  public long id;
+  public String title;
+  public int iconNumber;
+  public DrawMode drawMode;
+  public User user;
+  public List<OptionDetailRes> options;
+  public List<ParticipantDetailRes> participants;
+
+  public GeneratorDetailRes(
+      long id,
+      String title,
+      int iconNumber,
+      DrawMode drawMode,
+      User user,
+      List<OptionDetailRes> options,
+      List<ParticipantDetailRes> participants) {
+    this.id = id;
+    this.title = title;
+    this.iconNumber = iconNumber;
+    this.drawMode = drawMode;
+    this.user = user;
+    this.options = options;
+    this.participants = participants;
+  }
+}
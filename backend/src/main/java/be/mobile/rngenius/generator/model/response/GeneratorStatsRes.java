@@ -0,0 +1,18 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.util.List;
+
+public class GeneratorStatsRes {
+  public Long generatorId;
+  public long draws;
+  public List<OptionStatsRes> options;
+  public List<DailyDrawsRes> days;
+
+  public GeneratorStatsRes(
+      Long generatorId, long draws, List<OptionStatsRes> options, List<DailyDrawsRes> days) {
+    this.generatorId = generatorId;
+    this.draws = draws;
+    this.options = options;
+    this.days = days;
+  }
+}
@@ -0,0 +1,20 @@
+package be.mobile.rngenius.generator.model.response;
+
+import be.mobile.rngenius.generator.model.DrawMode;
+import be.mobile.rngenius.user.model.User;
+
+public class GeneratorSyncRes {
+  public long id;
+  public String title;
+  public int iconNumber;
+  public DrawMode drawMode;
+  public User user;
+
+  public GeneratorSyncRes(long id, String title, int iconNumber, DrawMode drawMode, User user) {
+    this.id = id;
+    this.title = title;
+    this.iconNumber = iconNumber;
+    this.drawMode = drawMode == null ? DrawMode.RANDOM : drawMode;
+    this.user = user;
+  }
+}
@@ -0,0 +1,30 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.util.List;
+
+public class OptionDetailRes {
+  public long id;
+  public String name;
+  public List<String> categories;
+  public String description;
+  public int excludedCount;
+  public int favouriteCount;
+  // the requester's own marks, the others only show up in the counts
+  public boolean excluded;
+  public boolean favorised;
+
+  public OptionDetailRes(
+      long id,
+      String name,
+      List<String> categories,
+      String description,
+      int excludedCount,
+      int favouriteCount) {
+    this.id = id;
+    this.name = name;
+    this.categories = categories;
+    this.description = description;
+    this.excludedCount = excludedCount;
+    this.favouriteCount = favouriteCount;
+  }
+}
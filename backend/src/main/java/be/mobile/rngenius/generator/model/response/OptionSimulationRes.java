@@ -0,0 +1,25 @@
+package be.mobile.rngenius.generator.model.response;
+
+public class OptionSimulationRes {
+  public long optionId;
+  public String name;
+  public long weight;
+  public long count;
+  public double theoreticalProbability;
+  public double empiricalProbability;
+
+  public OptionSimulationRes(
+      long optionId,
+      String name,
+      long weight,
+      long count,
+      double theoreticalProbability,
+      double empiricalProbability) {
+    this.optionId = optionId;
+    this.name = name;
+    this.weight = weight;
+    this.count = count;
+    this.theoreticalProbability = theoreticalProbability;
+    this.empiricalProbability = empiricalProbability;
+  }
+}
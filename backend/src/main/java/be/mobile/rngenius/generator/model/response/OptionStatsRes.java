@@ -0,0 +1,17 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.time.LocalDateTime;
+
+public class OptionStatsRes {
+  public Long optionId;
+  public String name;
+  public long draws;
+  public LocalDateTime lastDrawnAt;
+
+  public OptionStatsRes(Long optionId, String name, long draws, LocalDateTime lastDrawnAt) {
+    this.optionId = optionId;
+    this.name = name;
+    this.draws = draws;
+    this.lastDrawnAt = lastDrawnAt;
+  }
+}
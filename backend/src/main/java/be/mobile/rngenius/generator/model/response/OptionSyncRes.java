@@ -0,0 +1,20 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.util.List;
+
+public class OptionSyncRes {
+  public long id;
+  public long generatorId;
+  public String name;
+  public List<String> categories;
+  public String description;
+
+  public OptionSyncRes(
+      long id, long generatorId, String name, List<String> categories, String description) {
+    this.id = id;
+    this.generatorId = generatorId;
+    this.name = name;
+    this.categories = categories;
+    this.description = description;
+  }
+}
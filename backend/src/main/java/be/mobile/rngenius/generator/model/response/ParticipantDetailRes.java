@@ -0,0 +1,21 @@
+package be.mobile.rngenius.generator.model.response;
+
+import be.mobile.rngenius.selection.model.Selection;
+import be.mobile.rngenius.user.model.User;
+import java.util.List;
+
+public class ParticipantDetailRes {
+  public Long id;
+  public User user;
+  public boolean notifications;
+  // only filled in for the requester
+  public List<Selection> selections;
+
+  public ParticipantDetailRes(
+      Long id, User user, boolean notifications, List<Selection> selections) {
+    this.id = id;
+    this.user = user;
+    this.notifications = notifications;
+    this.selections = selections;
+  }
+}
@@ -0,0 +1,17 @@
+package be.mobile.rngenius.generator.model.response;
+
+import be.mobile.rngenius.user.model.User;
+
+public class ParticipantSyncRes {
+  public long id;
+  public long generatorId;
+  public boolean notifications;
+  public User user;
+
+  public ParticipantSyncRes(long id, long generatorId, boolean notifications, User user) {
+    this.id = id;
+    this.generatorId = generatorId;
+    this.notifications = notifications;
+    this.user = user;
+  }
+}
@@ -0,0 +1,18 @@
+package be.mobile.rngenius.generator.model.response;
+
+public class SelectionSyncRes {
+  public long id;
+  public long participantId;
+  public long optionId;
+  public boolean favorised;
+  public boolean excluded;
+
+  public SelectionSyncRes(
+      long id, long participantId, long optionId, boolean favorised, boolean excluded) {
+    this.id = id;
+    this.participantId = participantId;
+    this.optionId = optionId;
+    this.favorised = favorised;
+    this.excluded = excluded;
+  }
+}
@@ -0,0 +1,17 @@
+package be.mobile.rngenius.generator.model.response;
+
+import java.util.List;
+
+public class SimulationRes {
+  public long draws;
+  public double chiSquare;
+  public int degreesOfFreedom;
+  public List<OptionSimulationRes> options;
+
+  public SimulationRes(long draws, double chiSquare, List<OptionSimulationRes> options) {
+    this.draws = draws;
+    this.chiSquare = chiSquare;
+    this.degreesOfFreedom = options.size() - 1;
+    this.options = options;
+  }
+}
@@ -0,0 +1,27 @@
+package be.mobile.rngenius.generator.model.response;
+
+public class VerificationRes {
+  public long resultId;
+  public long seed;
+  public long counter;
+  public String weightSnapshotHash;
+  public long optionId;
+  public long recomputedOptionId;
+  public boolean valid;
+
+  public VerificationRes(
+      long resultId,
+      long seed,
+      long counter,
+      String weightSnapshotHash,
+      long optionId,
+      long recomputedOptionId) {
+    this.resultId = resultId;
+    this.seed = seed;
+    this.counter = counter;
+    this.weightSnapshotHash = weightSnapshotHash;
+    this.optionId = optionId;
+    this.recomputedOptionId = recomputedOptionId;
+    this.valid = optionId == recomputedOptionId;
+  }
+}
@@ -0,0 +1,43 @@
+package be.mobile.rngenius.generator.random;
+
+import java.util.random.RandomGenerator;
+
+// SplitMix64-style generator whose n-th output is a pure function of (seed, counter, n), so a draw
+// can be replayed on any node. nextInt and nextDouble are pinned here instead of relying on the
+// JDK defaults, which are allowed to change between releases.
+public class CounterBasedRandom implements RandomGenerator {
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final long key;
+
+  private long index;
+
+  public CounterBasedRandom(long seed, long counter) {
+    this.key = mix64(seed ^ mix64(counter * GOLDEN_GAMMA));
+  }
+
+  @Override
+  public long nextLong() {
+    return mix64(key + GOLDEN_GAMMA * ++index);
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("Bound has to be positive");
+    }
+    return (int) (((nextLong() >>> 32) * bound) >>> 32);
+  }
+
+  @Override
+  public double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,19 @@
+package be.mobile.rngenius.generator.random;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+public class FastRandomSource implements RandomSource {
+
+  private final ThreadLocal<RandomGenerator> generators;
+
+  public FastRandomSource(String algorithm) {
+    RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.of(algorithm);
+    this.generators = ThreadLocal.withInitial(factory::create);
+  }
+
+  @Override
+  public RandomGenerator current() {
+    return generators.get();
+  }
+}
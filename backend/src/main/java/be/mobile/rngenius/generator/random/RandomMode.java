@@ -0,0 +1,7 @@
+package be.mobile.rngenius.generator.random;
+
+public enum RandomMode {
+  FAST,
+  SECURE,
+  SEEDED
+}
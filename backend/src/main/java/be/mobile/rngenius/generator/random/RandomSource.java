@@ -0,0 +1,9 @@
+package be.mobile.rngenius.generator.random;
+
+import java.util.random.RandomGenerator;
+
+public interface RandomSource {
+
+  // the returned generator may only be used by the calling thread
+  RandomGenerator current();
+}
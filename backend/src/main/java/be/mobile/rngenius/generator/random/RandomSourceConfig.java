@@ -0,0 +1,25 @@
+package be.mobile.rngenius.generator.random;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RandomSourceConfig {
+
+  @Bean
+  public RandomSource randomSource(
+      @Value("${rngenius.random.mode:fast}") RandomMode mode,
+      @Value("${rngenius.random.algorithm:L64X128MixRandom}") String algorithm,
+      @Value("${rngenius.random.seed:0}") long seed) {
+    return create(mode, algorithm, seed);
+  }
+
+  public static RandomSource create(RandomMode mode, String algorithm, long seed) {
+    return switch (mode) {
+      case FAST -> new FastRandomSource(algorithm);
+      case SECURE -> new SecureRandomSource();
+      case SEEDED -> new SeededRandomSource(seed);
+    };
+  }
+}
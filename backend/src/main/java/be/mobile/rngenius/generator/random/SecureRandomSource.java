@@ -0,0 +1,31 @@
+package be.mobile.rngenius.generator.random;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+public class SecureRandomSource implements RandomSource {
+
+  private static final String ALGORITHM = "DRBG";
+
+  private final ThreadLocal<SecureRandom> generators = ThreadLocal.withInitial(this::create);
+
+  public SecureRandomSource() {
+    // fail on startup instead of on the first draw when DRBG is not available
+    create();
+  }
+
+  @Override
+  public RandomGenerator current() {
+    return generators.get();
+  }
+
+  private SecureRandom create() {
+    try {
+      return SecureRandom.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(
+          "SecureRandom algorithm " + ALGORITHM + " is not available", e);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package be.mobile.rngenius.generator.random;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+// Every thread shares one seeded generator, so a single-threaded run always yields the same draws.
+public class SeededRandomSource implements RandomSource {
+
+  private final Random random;
+
+  public SeededRandomSource(long seed) {
+    this.random = new Random(seed);
+  }
+
+  @Override
+  public RandomGenerator current() {
+    return random;
+  }
+}
@@ -0,0 +1,8 @@
+package be.mobile.rngenius.generator.repo;
+
+import be.mobile.rngenius.generator.model.GeneratorBag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeneratorBagRepository extends JpaRepository<GeneratorBag, Long> {}
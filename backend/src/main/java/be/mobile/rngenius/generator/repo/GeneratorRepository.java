@@ -1,14 +1,63 @@
 package be.mobile.rngenius.generator.repo;
 
 import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.generator.model.UserDataVersion;
+import be.mobile.rngenius.generator.model.response.GeneratorSyncRes;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface GeneratorRepository extends JpaRepository<Generator, Long> {
 
+  // every lookup is followed by the participant check, so participants and their users come along;
+  // options can't join the same select (two bags), they load in one go with batched categories
+  @EntityGraph("Generator.authorize")
   Generator findGeneratorById(Long id);
 
   List<Generator> findGeneratorsByUserId(Long userId);
+
+  // owners are participants of their own generators, so this covers both
+  @Query(
+      "SELECT g.id AS id, g.title AS title, g.iconNumber AS iconNumber,"
+          + " CONCAT(u.firstName, ' ', u.lastName) AS ownerName,"
+          + " (SELECT COUNT(o) FROM options o WHERE o.generator = g) AS optionCount,"
+          + " (SELECT COUNT(q) FROM participants q WHERE q.generator = g) AS participantCount,"
+          + " p.notifications AS notifications"
+          + " FROM generators g JOIN g.user u JOIN g.participants p"
+          + " WHERE p.user.id = ?1 ORDER BY g.id")
+  List<GeneratorSummary> findGeneratorSummariesByParticipantUserId(Long userId);
+
+  @Query(
+      "SELECT COUNT(g) AS generatorCount, COALESCE(MAX(g.changeSeq), 0) AS generatorSeq,"
+          + " (SELECT COUNT(o) FROM options o WHERE o.generator.id IN"
+          + " (SELECT x.generator.id FROM participants x WHERE x.user.id = ?1)) AS optionCount,"
+          + " (SELECT COALESCE(MAX(o.changeSeq), 0) FROM options o WHERE o.generator.id IN"
+          + " (SELECT x.generator.id FROM participants x WHERE x.user.id = ?1)) AS optionSeq,"
+          + " (SELECT COUNT(q) FROM participants q WHERE q.generator.id IN"
+          + " (SELECT x.generator.id FROM participants x WHERE x.user.id = ?1))"
+          + " AS participantCount,"
+          + " (SELECT COALESCE(MAX(q.changeSeq), 0) FROM participants q WHERE q.generator.id IN"
+          + " (SELECT x.generator.id FROM participants x WHERE x.user.id = ?1)) AS participantSeq"
+          + " FROM participants p JOIN p.generator g WHERE p.user.id = ?1")
+  UserDataVersion findUserDataVersionByParticipantUserId(Long userId);
+
+  // p is the requester's own participant row; when that changed, e.g. because they just joined,
+  // the whole generator is sent again
+  @Query(
+      "SELECT new be.mobile.rngenius.generator.model.response.GeneratorSyncRes("
+          + "g.id, g.title, g.iconNumber, g.drawMode, g.user)"
+          + " FROM generators g JOIN g.participants p"
+          + " WHERE p.user.id = ?1 AND (g.changeSeq > ?2 OR p.changeSeq > ?2) ORDER BY g.id")
+  List<GeneratorSyncRes> findGeneratorsChangedSince(Long userId, long since);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE generators x SET x.changeSeq = 1 WHERE x.changeSeq IS NULL")
+  int initChangeSeqs();
 }
@@ -0,0 +1,18 @@
+package be.mobile.rngenius.generator.repo;
+
+import be.mobile.rngenius.generator.model.WeightSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WeightSnapshotRepository extends JpaRepository<WeightSnapshot, String> {
+
+  // concurrent first draws on the same weighting can both get here, the hash makes them identical
+  @Modifying
+  @Query(
+      "INSERT INTO weight_snapshots (hash, generatorId, weights) VALUES (?1, ?2, ?3)"
+          + " ON CONFLICT DO NOTHING")
+  int insertIfAbsent(String hash, Long generatorId, String weights);
+}
@@ -0,0 +1,91 @@
+package be.mobile.rngenius.generator.sampler;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+// Vose's alias method: O(n) to build, O(1) per sample.
+public class AliasTable<T> {
+
+  private final List<T> items;
+
+  private final double[] probability;
+
+  private final int[] alias;
+
+  public AliasTable(List<T> items, long[] weights) {
+    if (items.isEmpty() || items.size() != weights.length) {
+      throw new IllegalArgumentException("Every item needs exactly one weight");
+    }
+
+    int n = weights.length;
+    long total = 0;
+    for (long weight : weights) {
+      if (weight < 0) {
+        throw new IllegalArgumentException("Weights cannot be negative");
+      }
+      total += weight;
+    }
+    if (total == 0) {
+      throw new IllegalArgumentException("At least one weight has to be positive");
+    }
+
+    this.items = List.copyOf(items);
+    this.probability = new double[n];
+    this.alias = new int[n];
+
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallSize = 0;
+    int largeSize = 0;
+
+    for (int i = 0; i < n; i++) {
+      scaled[i] = (double) weights[i] * n / total;
+      if (scaled[i] < 1.0) {
+        small[smallSize++] = i;
+      } else {
+        large[largeSize++] = i;
+      }
+    }
+
+    while (smallSize > 0 && largeSize > 0) {
+      int less = small[--smallSize];
+      int more = large[--largeSize];
+
+      probability[less] = scaled[less];
+      alias[less] = more;
+
+      scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+      if (scaled[more] < 1.0) {
+        small[smallSize++] = more;
+      } else {
+        large[largeSize++] = more;
+      }
+    }
+
+    // whatever is left is 1.0 up to rounding errors
+    while (largeSize > 0) {
+      probability[large[--largeSize]] = 1.0;
+    }
+    while (smallSize > 0) {
+      probability[small[--smallSize]] = 1.0;
+    }
+  }
+
+  public T sample(RandomGenerator random) {
+    return items.get(sampleIndex(random));
+  }
+
+  public int sampleIndex(RandomGenerator random) {
+    int column = random.nextInt(probability.length);
+    return random.nextDouble() < probability[column] ? column : alias[column];
+  }
+
+  public T get(int index) {
+    return items.get(index);
+  }
+
+  public int size() {
+    return items.size();
+  }
+}
@@ -0,0 +1,171 @@
+package be.mobile.rngenius.generator.sampler;
+
+import be.mobile.rngenius.generator.model.GeneratorBag;
+import be.mobile.rngenius.generator.repo.GeneratorBagRepository;
+import be.mobile.rngenius.option.model.Option;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Bags live in memory; only bags that were drawn from are written back, on a fixed delay. Draws of
+// a transaction that rolls back are put back into their bag.
+@Component
+public class BagStore {
+
+  private final GeneratorBagRepository generatorBagRepository;
+
+  private final Map<Long, DrawBag> bags = new ConcurrentHashMap<>();
+
+  private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+  private final TransactionTemplate newTransaction;
+
+  public BagStore(
+      GeneratorBagRepository generatorBagRepository,
+      PlatformTransactionManager transactionManager) {
+    this.generatorBagRepository = generatorBagRepository;
+    // the delete runs after the caller's transaction committed, so it can't take part in it
+    this.newTransaction = new TransactionTemplate(transactionManager);
+    this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public Option next(Long generatorId, OptionSampler sampler, RandomGenerator random) {
+    DrawBag bag = bags.computeIfAbsent(generatorId, this::load);
+
+    synchronized (bag) {
+      long optionId = bag.next(id -> sampler.getOption(id) != null);
+      if (optionId == -1) {
+        bag.refill(sampler.getOptionIds(), random);
+        optionId = bag.next(id -> true);
+      }
+      dirty.add(generatorId);
+      remember(new Draw(generatorId, bag, bag.getRound(), optionId));
+      return sampler.getOption(optionId);
+    }
+  }
+
+  // Waits for the caller's transaction to commit, a rolled back change keeps its bag. The stored
+  // bag is deleted and dropped under the bag's lock, so a flush that is saving it right now goes
+  // first and one that comes later no longer finds it.
+  public void discard(Long generatorId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      discardNow(generatorId);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            discardNow(generatorId);
+          }
+        });
+  }
+
+  @Scheduled(fixedDelayString = "${rngenius.bag.flush-delay:10000}")
+  @PreDestroy
+  public void flush() {
+    for (Long generatorId : dirty) {
+      dirty.remove(generatorId);
+      DrawBag bag = bags.get(generatorId);
+      if (bag == null) {
+        continue;
+      }
+
+      synchronized (bag) {
+        // discarded since it was looked up
+        if (bags.get(generatorId) != bag) {
+          continue;
+        }
+        generatorBagRepository.save(
+            new GeneratorBag(generatorId, bag.encodeOptionIds(), bag.getCursor()));
+      }
+    }
+  }
+
+  private void discardNow(Long generatorId) {
+    // without a bag in memory the row is deleted while no draw can load it
+    DrawBag bag =
+        bags.compute(
+            generatorId,
+            (id, current) -> {
+              if (current == null) {
+                delete(id);
+              }
+              return current;
+            });
+    if (bag == null) {
+      return;
+    }
+
+    synchronized (bag) {
+      delete(generatorId);
+      bags.remove(generatorId, bag);
+      dirty.remove(generatorId);
+    }
+  }
+
+  // one list per transaction, so a batch of draws doesn't register a synchronization each
+  @SuppressWarnings("unchecked")
+  private void remember(Draw draw) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+
+    List<Draw> draws = (List<Draw>) TransactionSynchronizationManager.getResource(this);
+    if (draws == null) {
+      List<Draw> transactionDraws = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(this, transactionDraws);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(BagStore.this);
+              if (status == STATUS_ROLLED_BACK) {
+                putBack(transactionDraws);
+              }
+            }
+          });
+      draws = transactionDraws;
+    }
+    draws.add(draw);
+  }
+
+  // newest first, so a bag that was drawn from twice ends up with its cursor where it started
+  private void putBack(List<Draw> draws) {
+    for (int i = draws.size() - 1; i >= 0; i--) {
+      Draw draw = draws.get(i);
+      synchronized (draw.bag()) {
+        // a discarded bag is gone along with its draws
+        if (bags.get(draw.generatorId()) == draw.bag()) {
+          draw.bag().putBack(draw.optionId(), draw.round());
+          dirty.add(draw.generatorId());
+        }
+      }
+    }
+  }
+
+  private void delete(Long generatorId) {
+    newTransaction.executeWithoutResult(status -> generatorBagRepository.deleteById(generatorId));
+  }
+
+  private DrawBag load(Long generatorId) {
+    return generatorBagRepository
+        .findById(generatorId)
+        .map(bag -> DrawBag.decode(bag.getOptionIds(), bag.getCursor()))
+        .orElseGet(DrawBag::new);
+  }
+
+  private record Draw(Long generatorId, DrawBag bag, int round, long optionId) {}
+}
@@ -0,0 +1,88 @@
+package be.mobile.rngenius.generator.sampler;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongPredicate;
+import java.util.random.RandomGenerator;
+
+// Shuffled option ids that are handed out one by one until the bag is empty.
+public class DrawBag {
+
+  private long[] optionIds;
+
+  private int cursor;
+
+  // counts the refills, a put back only applies to the round it was drawn in
+  private int round;
+
+  public DrawBag() {
+    this(new long[0], 0);
+  }
+
+  public DrawBag(long[] optionIds, int cursor) {
+    this.optionIds = optionIds;
+    this.cursor = cursor;
+  }
+
+  // skips ids that are no longer valid, returns -1 once the bag is empty
+  public long next(LongPredicate valid) {
+    while (cursor < optionIds.length) {
+      long optionId = optionIds[cursor++];
+      if (valid.test(optionId)) {
+        return optionId;
+      }
+    }
+    return -1;
+  }
+
+  public void refill(long[] optionIds, RandomGenerator random) {
+    // Fisher-Yates
+    for (int i = optionIds.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      long swap = optionIds[i];
+      optionIds[i] = optionIds[j];
+      optionIds[j] = swap;
+    }
+    this.optionIds = optionIds;
+    this.cursor = 0;
+    this.round++;
+  }
+
+  // makes a drawn id the next one again, a bag that was refilled since already holds it
+  public void putBack(long optionId, int round) {
+    if (round != this.round) {
+      return;
+    }
+
+    for (int i = cursor - 1; i >= 0; i--) {
+      if (optionIds[i] == optionId) {
+        optionIds[i] = optionIds[cursor - 1];
+        optionIds[--cursor] = optionId;
+        return;
+      }
+    }
+  }
+
+  public int remaining() {
+    return optionIds.length - cursor;
+  }
+
+  public int getCursor() {
+    return cursor;
+  }
+
+  public int getRound() {
+    return round;
+  }
+
+  public byte[] encodeOptionIds() {
+    ByteBuffer buffer = ByteBuffer.allocate(optionIds.length * Long.BYTES);
+    buffer.asLongBuffer().put(optionIds);
+    return buffer.array();
+  }
+
+  public static DrawBag decode(byte[] optionIds, int cursor) {
+    long[] ids = new long[optionIds.length / Long.BYTES];
+    ByteBuffer.wrap(optionIds).asLongBuffer().get(ids);
+    return new DrawBag(ids, cursor);
+  }
+}
@@ -0,0 +1,51 @@
+package be.mobile.rngenius.generator.sampler;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Counts how often every alias table index comes up over a number of draws, split across the
+// common fork/join pool. Every task gets its own split of the random generator.
+public class DrawSimulation extends RecursiveTask<long[]> {
+
+  private static final long DRAWS_PER_TASK = 1L << 16;
+
+  private final AliasTable<?> aliasTable;
+
+  private final long draws;
+
+  private final SplittableRandom random;
+
+  private DrawSimulation(AliasTable<?> aliasTable, long draws, SplittableRandom random) {
+    this.aliasTable = aliasTable;
+    this.draws = draws;
+    this.random = random;
+  }
+
+  public static long[] run(AliasTable<?> aliasTable, long draws, long seed) {
+    return ForkJoinPool.commonPool()
+        .invoke(new DrawSimulation(aliasTable, draws, new SplittableRandom(seed)));
+  }
+
+  @Override
+  protected long[] compute() {
+    if (draws <= DRAWS_PER_TASK) {
+      long[] counts = new long[aliasTable.size()];
+      for (long i = 0; i < draws; i++) {
+        counts[aliasTable.sampleIndex(random)]++;
+      }
+      return counts;
+    }
+
+    long half = draws / 2;
+    DrawSimulation left = new DrawSimulation(aliasTable, half, random.split());
+    DrawSimulation right = new DrawSimulation(aliasTable, draws - half, random.split());
+    left.fork();
+    long[] counts = right.compute();
+    long[] leftCounts = left.join();
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += leftCounts[i];
+    }
+    return counts;
+  }
+}
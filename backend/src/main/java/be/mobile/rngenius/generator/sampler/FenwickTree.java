@@ -0,0 +1,84 @@
+package be.mobile.rngenius.generator.sampler;
+
+// Binary indexed tree over non-negative weights: point updates and prefix-sum searches in O(log n).
+public class FenwickTree {
+
+  private final long[] tree;
+
+  private final long[] weights;
+
+  private final int highestBit;
+
+  private long total;
+
+  public FenwickTree(long[] weights) {
+    int n = weights.length;
+    this.weights = weights.clone();
+    this.tree = new long[n + 1];
+
+    // linear-time construction: push every node's sum into its parent
+    for (int i = 1; i <= n; i++) {
+      if (weights[i - 1] < 0) {
+        throw new IllegalArgumentException("Weights cannot be negative");
+      }
+      tree[i] += weights[i - 1];
+      total += weights[i - 1];
+      int parent = i + (i & -i);
+      if (parent <= n) {
+        tree[parent] += tree[i];
+      }
+    }
+
+    this.highestBit = n == 0 ? 0 : Integer.highestOneBit(n);
+  }
+
+  public int size() {
+    return weights.length;
+  }
+
+  public long total() {
+    return total;
+  }
+
+  public long get(int index) {
+    return weights[index];
+  }
+
+  public void set(int index, long weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Weights cannot be negative");
+    }
+
+    long delta = weight - weights[index];
+    weights[index] = weight;
+    total += delta;
+
+    for (int i = index + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  public long prefixSum(int count) {
+    long sum = 0;
+    for (int i = count; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  // index of the item whose cumulative range contains target, for 0 <= target < total()
+  public int find(long target) {
+    int position = 0;
+    long remaining = target;
+
+    for (int step = highestBit; step > 0; step >>= 1) {
+      int next = position + step;
+      if (next < tree.length && tree[next] <= remaining) {
+        position = next;
+        remaining -= tree[next];
+      }
+    }
+
+    return position;
+  }
+}
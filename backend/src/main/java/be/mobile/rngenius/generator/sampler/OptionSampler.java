@@ -0,0 +1,346 @@
+package be.mobile.rngenius.generator.sampler;
+
+import be.mobile.rngenius.generator.model.WeightSnapshot;
+import be.mobile.rngenius.option.model.Option;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.random.RandomGenerator;
+
+// Live weights of a generator's options. Single draws search the Fenwick tree, selection toggles
+// are point updates, and batch or verifiable draws use an alias table frozen from the current
+// weights. Each category keeps its own tree over its options for category-restricted draws.
+public class OptionSampler {
+
+  private final Long generatorId;
+
+  private final List<Option> options;
+
+  private final Map<Long, Integer> positions;
+
+  private final FenwickTree weights;
+
+  private final Map<String, CategoryIndex> categories;
+
+  // the categories of the option at each position, to keep their trees in step with the weights
+  private final CategoryIndex[][] optionCategories;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private volatile Snapshot snapshot;
+
+  public OptionSampler(Long generatorId, List<Option> options, long[] weights) {
+    // options are kept in id order so the same weighting always builds the same alias table
+    Integer[] order = new Integer[options.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparing(i -> options.get(i).id));
+
+    this.generatorId = generatorId;
+    this.options = new ArrayList<>(options.size());
+    this.positions = new HashMap<>();
+    long[] sortedWeights = new long[options.size()];
+
+    for (int i = 0; i < order.length; i++) {
+      Option option = options.get(order[i]);
+      this.options.add(option);
+      this.positions.put(option.id, i);
+      sortedWeights[i] = weights[order[i]];
+    }
+
+    this.weights = new FenwickTree(sortedWeights);
+
+    Map<String, List<Integer>> members = new HashMap<>();
+    for (int i = 0; i < this.options.size(); i++) {
+      for (String category : new LinkedHashSet<>(this.options.get(i).getCategories())) {
+        members.computeIfAbsent(category, c -> new ArrayList<>()).add(i);
+      }
+    }
+
+    this.categories = new HashMap<>();
+    members.forEach(
+        (category, positions) ->
+            categories.put(
+                category,
+                new CategoryIndex(
+                    positions.stream().mapToInt(Integer::intValue).toArray(), sortedWeights)));
+
+    this.optionCategories = new CategoryIndex[this.options.size()][];
+    for (int i = 0; i < this.options.size(); i++) {
+      optionCategories[i] =
+          this.options.get(i).getCategories().stream()
+              .distinct()
+              .map(categories::get)
+              .toArray(CategoryIndex[]::new);
+    }
+  }
+
+  public static long weightOf(boolean excluded, long timesFavorised) {
+    // every favourite counts as one extra ticket on top of the option's own
+    return excluded ? 0 : 1 + timesFavorised;
+  }
+
+  public boolean isEmpty() {
+    lock.readLock().lock();
+    try {
+      return weights.total() == 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean isEmpty(Collection<String> categoryNames) {
+    lock.readLock().lock();
+    try {
+      return total(select(categoryNames)) == 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // null when every option was excluded since the caller checked isEmpty
+  public Option sample(RandomGenerator random) {
+    lock.readLock().lock();
+    try {
+      long total = weights.total();
+      return total == 0 ? null : options.get(weights.find(random.nextLong(total)));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Draws from the options in any of the given categories, or returns null if they have none. An
+  // option in several of them is proposed once per category, so it is only accepted with one over
+  // that count to keep every option's chance proportional to its weight.
+  public Option sample(RandomGenerator random, Collection<String> categoryNames) {
+    lock.readLock().lock();
+    try {
+      List<CategoryIndex> selected = select(categoryNames);
+      long total = total(selected);
+      if (total == 0) {
+        return null;
+      }
+
+      while (true) {
+        long target = random.nextLong(total);
+        int position = -1;
+        for (CategoryIndex category : selected) {
+          if (target < category.weights.total()) {
+            position = category.find(target);
+            break;
+          }
+          target -= category.weights.total();
+        }
+
+        int memberships = 0;
+        for (CategoryIndex category : selected) {
+          if (category.positions.get(position)) {
+            memberships++;
+          }
+        }
+        if (memberships == 1 || random.nextInt(memberships) == 0) {
+          return options.get(position);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // returns false when the option is not part of this sampler, e.g. because it was just added
+  public boolean setWeight(long optionId, long weight) {
+    Integer position = positions.get(optionId);
+    if (position == null) {
+      return false;
+    }
+
+    lock.writeLock().lock();
+    try {
+      weights.set(position, weight);
+      for (CategoryIndex category : optionCategories[position]) {
+        category.set(position, weight);
+      }
+      snapshot = null;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // returns null when the option is unknown or currently excluded
+  public Option getOption(long optionId) {
+    Integer position = positions.get(optionId);
+    if (position == null) {
+      return null;
+    }
+
+    lock.readLock().lock();
+    try {
+      return weights.get(position) > 0 ? options.get(position) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public long[] getOptionIds() {
+    lock.readLock().lock();
+    try {
+      return positions.keySet().stream()
+          .filter(optionId -> weights.get(positions.get(optionId)) > 0)
+          .mapToLong(Long::longValue)
+          .sorted()
+          .toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // null when there are no valid options
+  public Snapshot snapshot() {
+    lock.readLock().lock();
+    try {
+      if (snapshot != null || weights.total() == 0) {
+        return snapshot;
+      }
+
+      BitSet all = new BitSet(options.size());
+      all.set(0, options.size());
+
+      // racing readers may each build one, they are identical
+      snapshot = buildSnapshot(all);
+      return snapshot;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // not cached, it only covers the options of the given categories; null when they have none
+  public Snapshot snapshot(Collection<String> categoryNames) {
+    lock.readLock().lock();
+    try {
+      List<CategoryIndex> selected = select(categoryNames);
+      if (total(selected) == 0) {
+        return null;
+      }
+
+      BitSet positions = new BitSet(options.size());
+      for (CategoryIndex category : selected) {
+        positions.or(category.positions);
+      }
+      return buildSnapshot(positions);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Snapshot buildSnapshot(BitSet positions) {
+    List<Option> validOptions = new ArrayList<>();
+    List<Long> validWeights = new ArrayList<>();
+    for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+      if (weights.get(i) > 0) {
+        validOptions.add(options.get(i));
+        validWeights.add(weights.get(i));
+      }
+    }
+
+    long[] optionIds = validOptions.stream().mapToLong(option -> option.id).toArray();
+    long[] optionWeights = validWeights.stream().mapToLong(Long::longValue).toArray();
+
+    return new Snapshot(
+        new AliasTable<>(validOptions, optionWeights),
+        new WeightSnapshot(generatorId, optionIds, optionWeights));
+  }
+
+  // unknown categories and categories without valid options are left out
+  private List<CategoryIndex> select(Collection<String> categoryNames) {
+    List<CategoryIndex> selected = new ArrayList<>();
+    for (String name : new LinkedHashSet<>(categoryNames)) {
+      CategoryIndex category = categories.get(name);
+      if (category != null && category.weights.total() > 0) {
+        selected.add(category);
+      }
+    }
+    return selected;
+  }
+
+  private static long total(List<CategoryIndex> categories) {
+    long total = 0;
+    for (CategoryIndex category : categories) {
+      total += category.weights.total();
+    }
+    return total;
+  }
+
+  public static long replay(WeightSnapshot weightSnapshot, RandomGenerator random) {
+    long[] optionIds = weightSnapshot.getOptionIds();
+    List<Long> ids = new ArrayList<>(optionIds.length);
+    for (long optionId : optionIds) {
+      ids.add(optionId);
+    }
+    return new AliasTable<>(ids, weightSnapshot.getOptionWeights()).sample(random);
+  }
+
+  // The sampler positions of one category's options, as a bitset for membership tests and as a
+  // sorted array with a Fenwick tree over their weights for drawing.
+  private static class CategoryIndex {
+
+    private final BitSet positions;
+
+    private final int[] members;
+
+    private final FenwickTree weights;
+
+    private CategoryIndex(int[] members, long[] allWeights) {
+      this.positions = new BitSet();
+      long[] memberWeights = new long[members.length];
+      for (int i = 0; i < members.length; i++) {
+        positions.set(members[i]);
+        memberWeights[i] = allWeights[members[i]];
+      }
+
+      this.members = members;
+      this.weights = new FenwickTree(memberWeights);
+    }
+
+    private int find(long target) {
+      return members[weights.find(target)];
+    }
+
+    private void set(int position, long weight) {
+      weights.set(Arrays.binarySearch(members, position), weight);
+    }
+  }
+
+  public static class Snapshot {
+
+    private final AliasTable<Option> aliasTable;
+
+    private final WeightSnapshot weightSnapshot;
+
+    private Snapshot(AliasTable<Option> aliasTable, WeightSnapshot weightSnapshot) {
+      this.aliasTable = aliasTable;
+      this.weightSnapshot = weightSnapshot;
+    }
+
+    public Option sample(RandomGenerator random) {
+      return aliasTable.sample(random);
+    }
+
+    public AliasTable<Option> getAliasTable() {
+      return aliasTable;
+    }
+
+    public WeightSnapshot getWeightSnapshot() {
+      return weightSnapshot;
+    }
+  }
+}
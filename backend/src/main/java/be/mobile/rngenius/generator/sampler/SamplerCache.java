@@ -0,0 +1,95 @@
+package be.mobile.rngenius.generator.sampler;
+
+import be.mobile.rngenius.generator.event.GeneratorChangedEvent;
+import be.mobile.rngenius.generator.event.SelectionChangedEvent;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.selection.model.OptionSelectionSummary;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class SamplerCache {
+
+  @Autowired private OptionRepository optionRepository;
+
+  // a slot without a sampler is a load in progress, which only gets to fill its own slot; so
+  // invalidating is just removing the slot and nothing is left behind for deleted generators
+  private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+
+  public OptionSampler get(Long generatorId, Supplier<OptionSampler> loader) {
+    Slot slot = slots.get(generatorId);
+    if (slot != null && slot.sampler != null) {
+      return slot.sampler;
+    }
+
+    Slot loading = new Slot(null);
+    Slot current =
+        slots.compute(
+            generatorId,
+            (id, present) -> present != null && present.sampler != null ? present : loading);
+    if (current != loading) {
+      return current.sampler;
+    }
+
+    OptionSampler loaded;
+    try {
+      loaded = loader.get();
+    } catch (RuntimeException e) {
+      slots.remove(generatorId, loading);
+      throw e;
+    }
+
+    // only cached if no invalidation happened while it was being built
+    slots.replace(generatorId, loading, new Slot(loaded));
+    return loaded;
+  }
+
+  public void invalidate(Long generatorId) {
+    slots.remove(generatorId);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGeneratorChanged(GeneratorChangedEvent event) {
+    invalidate(event.generatorId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSelectionChanged(SelectionChangedEvent event) {
+    Slot slot = slots.get(event.generatorId());
+    if (slot == null) {
+      return;
+    }
+
+    // a load racing with this commit may have read the old weights, so it must not be cached
+    if (slot.sampler == null) {
+      slots.remove(event.generatorId(), slot);
+      return;
+    }
+
+    OptionSampler sampler = slot.sampler;
+
+    // re-read the committed weight instead of applying a delta, so out-of-order events converge
+    OptionSelectionSummary summary =
+        optionRepository.findOptionSelectionSummaryById(event.optionId());
+    if (summary == null
+        || !sampler.setWeight(
+            event.optionId(),
+            OptionSampler.weightOf(summary.getExcluded(), summary.getTimesFavorised()))) {
+      invalidate(event.generatorId());
+    }
+  }
+
+  // compared by identity, every load gets a slot of its own
+  private static final class Slot {
+
+    private final OptionSampler sampler;
+
+    private Slot(OptionSampler sampler) {
+      this.sampler = sampler;
+    }
+  }
+}
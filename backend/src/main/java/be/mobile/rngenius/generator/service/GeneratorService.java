@@ -1,40 +1,117 @@
 package be.mobile.rngenius.generator.service;
 
+import be.mobile.rngenius.category.model.Category;
+import be.mobile.rngenius.category.repo.CategoryRepository;
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import be.mobile.rngenius.generator.event.GeneratorActivityEvent;
+import be.mobile.rngenius.generator.event.GeneratorChangedEvent;
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.event.SelectionChangedEvent;
+import be.mobile.rngenius.generator.model.DrawMode;
 import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.generator.model.WeightSnapshot;
+import be.mobile.rngenius.generator.model.response.ChangesRes;
+import be.mobile.rngenius.generator.model.response.GeneratorDetailRes;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.generator.model.response.OptionDetailRes;
+import be.mobile.rngenius.generator.model.response.OptionSimulationRes;
+import be.mobile.rngenius.generator.model.response.OptionSyncRes;
+import be.mobile.rngenius.generator.model.response.ParticipantDetailRes;
+import be.mobile.rngenius.generator.model.response.SimulationRes;
+import be.mobile.rngenius.generator.model.response.VerificationRes;
+import be.mobile.rngenius.generator.random.CounterBasedRandom;
+import be.mobile.rngenius.generator.random.RandomSource;
 import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.repo.WeightSnapshotRepository;
+import be.mobile.rngenius.generator.sampler.AliasTable;
+import be.mobile.rngenius.generator.sampler.BagStore;
+import be.mobile.rngenius.generator.sampler.DrawSimulation;
+import be.mobile.rngenius.generator.sampler.OptionSampler;
+import be.mobile.rngenius.generator.sampler.SamplerCache;
+import be.mobile.rngenius.generator.wait.ResultWaiter;
 import be.mobile.rngenius.option.model.Option;
 import be.mobile.rngenius.option.repo.OptionRepository;
 import be.mobile.rngenius.participant.model.Participant;
 import be.mobile.rngenius.participant.repo.ParticipantRepository;
 import be.mobile.rngenius.result.model.Result;
-import be.mobile.rngenius.result.repo.ResultRepository;
+import be.mobile.rngenius.result.store.ResultStore;
+import be.mobile.rngenius.selection.model.MarkedSelection;
 import be.mobile.rngenius.selection.model.Selection;
 import be.mobile.rngenius.selection.repo.SelectionRepository;
+import be.mobile.rngenius.stats.service.DrawStatistics;
+import be.mobile.rngenius.sync.model.ChangeSequence;
+import be.mobile.rngenius.sync.model.Tombstone;
+import be.mobile.rngenius.sync.model.TombstoneType;
+import be.mobile.rngenius.sync.repo.TombstoneRepository;
+import be.mobile.rngenius.sync.service.TombstoneRetention;
 import be.mobile.rngenius.user.model.User;
 import be.mobile.rngenius.user.service.UserService;
 import be.mobile.rngenius.user.service.UserServiceException;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.random.RandomGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Service
 @Transactional
 public class GeneratorService {
 
+  private static final int MAX_DRAWS_PER_REQUEST = 1000;
+
+  private static final int MAX_SIMULATED_DRAWS = 10_000_000;
+
+  private static final int MAX_RESULTS_PER_PAGE = 100;
+
+  private static final Duration MAX_WAIT = Duration.ofSeconds(60);
+
+  private static final int MAX_STATS_DAYS = 366;
+
   @Autowired private GeneratorRepository generatorRepository;
 
   @Autowired private OptionRepository optionRepository;
 
+  @Autowired private CategoryRepository categoryRepository;
+
   @Autowired private ParticipantRepository participantRepository;
 
   @Autowired private SelectionRepository selectionRepository;
 
-  @Autowired private ResultRepository resultRepository;
+  @Autowired private ResultStore resultStore;
+
+  @Autowired private WeightSnapshotRepository weightSnapshotRepository;
 
   @Autowired private UserService userService;
 
+  @Autowired private SamplerCache samplerCache;
+
+  @Autowired private RandomSource randomSource;
+
+  @Autowired private BagStore bagStore;
+
+  @Autowired private TombstoneRepository tombstoneRepository;
+
+  @Autowired private TombstoneRetention tombstoneRetention;
+
+  @Autowired private ResultWaiter resultWaiter;
+
+  @Autowired private DrawStatistics drawStatistics;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   public GeneratorService() {}
 
   public Generator getGeneratorById(Long id, Long requesterId)
@@ -55,22 +132,83 @@ public class GeneratorService {
         "generator", "You are not authorized to view this generator");
   }
 
-  public List<Generator> getMyGenerators(Long requesterId) {
-    List<Generator> generators = generatorRepository.findAll();
+  public GeneratorDetailRes getGeneratorDetail(Long id, Long requesterId)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Generator generator = getGeneratorById(id, requesterId);
+
+    Map<Long, OptionDetailRes> options = new LinkedHashMap<>();
+    for (Option option : optionRepository.findOptionsWithCategoriesByGeneratorId(generator.id)) {
+      options.put(
+          option.id,
+          new OptionDetailRes(
+              option.id,
+              option.getName(),
+              option.getCategories(),
+              option.getDescription(),
+              option.getExcludedCount(),
+              option.getFavouriteCount()));
+    }
 
-    List<Generator> myGenerators = new ArrayList<>();
+    for (MarkedSelection selection :
+        selectionRepository.findMarkedSelectionsByGeneratorIdAndUserId(generator.id, requesterId)) {
+      OptionDetailRes option = options.get(selection.getOptionId());
+      option.excluded = selection.getExcluded();
+      option.favorised = selection.getFavorised();
+    }
 
-    if (generators != null) {
-      for (Generator generator : generators) {
-        if (generator.getUser().id.equals(requesterId)
-            || generator.getParticipants().stream()
-                .anyMatch(p -> p.getUser().id.equals(requesterId))) {
-          myGenerators.add(generator);
-        }
-      }
+    List<ParticipantDetailRes> participants = new ArrayList<>();
+    for (Participant participant : generator.getParticipants()) {
+      boolean requester = participant.getUser().id.equals(requesterId);
+      participants.add(
+          new ParticipantDetailRes(
+              participant.id,
+              participant.getUser(),
+              participant.getNotifications(),
+              requester ? participant.getSelections() : List.of()));
     }
 
-    return myGenerators;
+    return new GeneratorDetailRes(
+        generator.id,
+        generator.getTitle(),
+        generator.getIconNumber(),
+        generator.getDrawMode(),
+        generator.getUser(),
+        new ArrayList<>(options.values()),
+        participants);
+  }
+
+  public List<GeneratorSummary> getMyGenerators(Long requesterId) {
+    return generatorRepository.findGeneratorSummariesByParticipantUserId(requesterId);
+  }
+
+  public ChangesRes getChangesSince(long since, Long requesterId) {
+    // taken before reading, so changes that commit while we read are sent again next time
+    long version = Math.max(since, ChangeSequence.watermark());
+    boolean full = since <= 0 || since < tombstoneRetention.horizon();
+    long from = full ? 0 : since;
+
+    List<OptionSyncRes> options =
+        optionRepository.findOptionsChangedSince(requesterId, from).stream()
+            .map(
+                option ->
+                    new OptionSyncRes(
+                        option.id,
+                        option.getGenerator().id,
+                        option.getName(),
+                        option.getCategories(),
+                        option.getDescription()))
+            .toList();
+
+    return new ChangesRes(
+        version,
+        full,
+        generatorRepository.findGeneratorsChangedSince(requesterId, from),
+        options,
+        participantRepository.findParticipantsChangedSince(requesterId, from),
+        selectionRepository.findSelectionsChangedSince(requesterId, from),
+        full
+            ? List.of()
+            : tombstoneRepository.findTombstonesByUserIdChangedSince(requesterId, from));
   }
 
   public void addGenerator(Generator generator, Long requesterId)
@@ -87,6 +225,7 @@ public class GeneratorService {
     participant.setGenerator(generator);
     participant.setUser(generator.getUser());
     participantRepository.save(participant);
+    publishChange(generator, ActivityType.GENERATOR_CHANGED, null, requesterId);
   }
 
   public void updateGenerator(Long id, Generator generator, Long requesterId)
@@ -108,6 +247,7 @@ public class GeneratorService {
     existingGenerator.setIconNumber(generator.getIconNumber());
 
     generatorRepository.save(existingGenerator);
+    publishChange(existingGenerator, ActivityType.GENERATOR_CHANGED, null);
   }
 
   public void deleteGeneratorById(Long id, Long requesterId)
@@ -120,6 +260,32 @@ public class GeneratorService {
     }
 
     generatorRepository.delete(generator);
+    bagStore.discard(generator.id);
+    recordTombstones(getAffectedUserIds(generator), TombstoneType.GENERATOR, generator.id);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generator.id));
+    publishChange(generator, ActivityType.GENERATOR_DELETED, null);
+  }
+
+  public void setDrawMode(Long id, DrawMode drawMode, Long requesterId)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    if (drawMode == null) {
+      throw new GeneratorServiceException("drawMode", "Draw mode is required");
+    }
+
+    Generator generator = getGeneratorById(id, requesterId);
+
+    if (!generator.getUser().id.equals(requesterId)) {
+      throw new GeneratorServiceAuthorizationException(
+          "generator", "You are not authorized to update this generator");
+    }
+
+    if (generator.getDrawMode() == DrawMode.BAG && drawMode != DrawMode.BAG) {
+      bagStore.discard(generator.id);
+    }
+
+    generator.setDrawMode(drawMode);
+    generatorRepository.save(generator);
+    publishChange(generator, ActivityType.GENERATOR_CHANGED, null);
   }
 
   public void addGeneratorOption(Long generatorId, Option option, Long requesterId)
@@ -139,17 +305,21 @@ public class GeneratorService {
               .findFirst()
               .get();
 
-      option.getCategories().stream()
-          .filter(c -> !existingOption.getCategories().contains(c))
-          .forEach(c -> existingOption.addCategory(c));
+      for (Category category : resolveCategories(generator, option.getCategories())) {
+        existingOption.addCategory(category);
+      }
       existingOption.setDescription(option.getDescription());
 
       optionRepository.save(existingOption);
+      eventPublisher.publishEvent(new GeneratorChangedEvent(generator.id));
+      publishChange(generator, ActivityType.OPTION_CHANGED, existingOption.id);
       return;
     }
 
     option.setGenerator(generator);
+    option.setCategorySet(resolveCategories(generator, option.getCategories()));
     optionRepository.save(option);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generator.id));
 
     for (Participant participant : generator.getParticipants()) {
       Selection selection = new Selection();
@@ -157,6 +327,7 @@ public class GeneratorService {
       selection.setOption(option);
       selectionRepository.save(selection);
     }
+    publishChange(generator, ActivityType.OPTION_ADDED, option.id);
   }
 
   public void deleteCategorizedGeneratorOption(Long optionId, String category, Long requesterId)
@@ -168,13 +339,27 @@ public class GeneratorService {
           "option", "You are not authorized to delete this option");
     }
 
-    option.removeCategory(category);
+    Category removedCategory =
+        categoryRepository.findCategoryByGeneratorIdAndName(option.getGenerator().id, category);
+    if (removedCategory != null) {
+      option.removeCategory(removedCategory);
+    }
 
-    if (option.getCategories().isEmpty()) {
+    boolean removed = option.getCategorySet().isEmpty();
+    if (removed) {
       optionRepository.delete(option);
+      recordTombstones(getAffectedUserIds(option.getGenerator()), TombstoneType.OPTION, option.id);
     } else {
       optionRepository.save(option);
     }
+    if (removedCategory != null) {
+      categoryRepository.deleteUnusedCategoriesByGeneratorId(option.getGenerator().id);
+    }
+    eventPublisher.publishEvent(new GeneratorChangedEvent(option.getGenerator().id));
+    publishChange(
+        option.getGenerator(),
+        removed ? ActivityType.OPTION_REMOVED : ActivityType.OPTION_CHANGED,
+        option.id);
   }
 
   public void purgeGeneratorOption(Long optionId, Long requesterId)
@@ -187,79 +372,167 @@ public class GeneratorService {
     }
 
     optionRepository.delete(option);
+    categoryRepository.deleteUnusedCategoriesByGeneratorId(option.getGenerator().id);
+    recordTombstones(getAffectedUserIds(option.getGenerator()), TombstoneType.OPTION, option.id);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(option.getGenerator().id));
+    publishChange(option.getGenerator(), ActivityType.OPTION_REMOVED, option.id);
   }
 
   public Option generateOption(Long generatorId, Long requesterId)
       throws GeneratorServiceException,
           GeneratorServiceAuthorizationException,
           UserServiceException {
+    return generateOption(generatorId, List.of(), requesterId);
+  }
+
+  // an empty list of categories draws from all options
+  public Option generateOption(Long generatorId, List<String> categories, Long requesterId)
+      throws GeneratorServiceException,
+          GeneratorServiceAuthorizationException,
+          UserServiceException {
     Generator generator = getGeneratorById(generatorId, requesterId);
 
-    List<Option> options = generator.getOptions();
-    List<Option> validOptions = new ArrayList<>();
+    Result result =
+        drawResults(generator, 1, categories, userService.getUserById(requesterId)).get(0);
+    resultStore.save(result);
+    publishResult(generator, List.of(result));
 
-    for (Option option : options) {
-      boolean isExcluded = false;
-      int timesFavorised = 0;
+    return result.getOption();
+  }
 
-      List<Selection> selections = selectionRepository.findSelectionsByOptionId(option.id);
-      for (Selection selection : selections) {
-        if (selection.getExcluded()) {
-          isExcluded = true;
-          break;
-        }
-        if (selection.getFavorised()) {
-          timesFavorised++;
-        }
-      }
+  public List<Option> generateOptions(Long generatorId, int count, Long requesterId)
+      throws GeneratorServiceException,
+          GeneratorServiceAuthorizationException,
+          UserServiceException {
+    return generateOptions(generatorId, count, List.of(), requesterId);
+  }
 
-      if (!isExcluded) {
-        validOptions.add(option);
-        for (int i = 0; i < timesFavorised; i++) {
-          validOptions.add(option);
-        }
-      }
+  public List<Option> generateOptions(
+      Long generatorId, int count, List<String> categories, Long requesterId)
+      throws GeneratorServiceException,
+          GeneratorServiceAuthorizationException,
+          UserServiceException {
+    if (count < 1 || count > MAX_DRAWS_PER_REQUEST) {
+      throw new GeneratorServiceException(
+          "count", "Count has to be between 1 and " + MAX_DRAWS_PER_REQUEST);
     }
 
-    if (validOptions.isEmpty()) {
-      throw new GeneratorServiceException("generator", "No valid options available");
+    Generator generator = getGeneratorById(generatorId, requesterId);
+
+    List<Result> results =
+        drawResults(generator, count, categories, userService.getUserById(requesterId));
+    resultStore.saveAll(results);
+    publishResult(generator, results);
+
+    return results.stream().map(Result::getOption).toList();
+  }
+
+  public SimulationRes simulateDraws(Long generatorId, int draws, Long requesterId)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    if (draws < 1 || draws > MAX_SIMULATED_DRAWS) {
+      throw new GeneratorServiceException(
+          "draws", "Draws have to be between 1 and " + MAX_SIMULATED_DRAWS);
     }
 
-    int randomIndex = (int) (Math.random() * validOptions.size());
+    Generator generator = getGeneratorById(generatorId, requesterId);
+    OptionSampler.Snapshot snapshot = getSampler(generator).snapshot();
+    if (snapshot == null) {
+      throw noValidOptions(false);
+    }
+
+    AliasTable<Option> aliasTable = snapshot.getAliasTable();
+    long[] weights = snapshot.getWeightSnapshot().getOptionWeights();
+    long totalWeight = Arrays.stream(weights).sum();
+    long[] counts = DrawSimulation.run(aliasTable, draws, randomSource.current().nextLong());
+
+    List<OptionSimulationRes> options = new ArrayList<>(weights.length);
+    double chiSquare = 0;
+
+    for (int i = 0; i < weights.length; i++) {
+      Option option = aliasTable.get(i);
+      double theoretical = (double) weights[i] / totalWeight;
+      double expected = theoretical * draws;
+      chiSquare += (counts[i] - expected) * (counts[i] - expected) / expected;
+      options.add(
+          new OptionSimulationRes(
+              option.id,
+              option.getName(),
+              weights[i],
+              counts[i],
+              theoretical,
+              (double) counts[i] / draws));
+    }
+
+    return new SimulationRes(draws, chiSquare, options);
+  }
+
+  public GeneratorStatsRes getGeneratorStats(Long generatorId, int days, Long requesterId)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    if (days < 1 || days > MAX_STATS_DAYS) {
+      throw new GeneratorServiceException(
+          "days", "Days have to be between 1 and " + MAX_STATS_DAYS);
+    }
+
+    Generator generator = getGeneratorById(generatorId, requesterId);
+    return drawStatistics.getStats(generator, days);
+  }
+
+  public VerificationRes verifyResult(Long resultId, Long requesterId)
+      throws GeneratorServiceException, GeneratorServiceAuthorizationException {
+    Result result = resultStore.findById(resultId);
+
+    if (result == null) {
+      throw new GeneratorServiceException("result", "No result with this id");
+    }
+
+    getGeneratorById(result.getGeneratorId(), requesterId);
 
-    Option generatedResult = validOptions.get(randomIndex);
+    if (result.getSeed() == null) {
+      throw new GeneratorServiceException("result", "This result was not drawn verifiably");
+    }
+
+    WeightSnapshot weightSnapshot =
+        weightSnapshotRepository.findById(result.getWeightSnapshotHash()).orElse(null);
 
-    Result result = new Result();
-    result.setUser(userService.getUserById(requesterId));
-    result.setOption(generatedResult);
-    result.setGeneratorId(generatorId);
-    resultRepository.save(result);
+    if (weightSnapshot == null) {
+      throw new GeneratorServiceException("result", "No weight snapshot for this result");
+    }
 
-    return generatedResult;
+    long recomputedOptionId =
+        OptionSampler.replay(
+            weightSnapshot, new CounterBasedRandom(result.getSeed(), result.getCounter()));
+
+    return new VerificationRes(
+        result.id,
+        result.getSeed(),
+        result.getCounter(),
+        weightSnapshot.hash,
+        result.getOption().id,
+        recomputedOptionId);
   }
 
   public void favoriseOption(Long optionId, Long requesterId)
       throws GeneratorServiceException, GeneratorServiceAuthorizationException {
     Selection selection = getSelectionByParticipantUserIdAndOptionId(requesterId, optionId);
-    if (!selection.getFavorised()) {
-      selection.setFavorised(true);
-      selection.setExcluded(false);
-    } else {
-      selection.setFavorised(false);
+    boolean favorised = !selection.getFavorised();
+    if (!saveSelection(selection, favorised, !favorised && selection.getExcluded())) {
+      return;
     }
-    selectionRepository.save(selection);
+    eventPublisher.publishEvent(
+        new SelectionChangedEvent(selection.getOption().getGenerator().id, optionId));
+    publishChange(selection.getOption().getGenerator(), ActivityType.SELECTION_TOGGLED, optionId);
   }
 
   public void excludeOption(Long optionId, Long requesterId)
       throws GeneratorServiceException, GeneratorServiceAuthorizationException {
     Selection selection = getSelectionByParticipantUserIdAndOptionId(requesterId, optionId);
-    if (!selection.getExcluded()) {
-      selection.setFavorised(false);
-      selection.setExcluded(true);
-    } else {
-      selection.setExcluded(false);
+    boolean excluded = !selection.getExcluded();
+    if (!saveSelection(selection, !excluded && selection.getFavorised(), excluded)) {
+      return;
     }
-    selectionRepository.save(selection);
+    eventPublisher.publishEvent(
+        new SelectionChangedEvent(selection.getOption().getGenerator().id, optionId));
+    publishChange(selection.getOption().getGenerator(), ActivityType.SELECTION_TOGGLED, optionId);
   }
 
   public void addGeneratorParticipant(Long generatorId, String email, Long requesterId)
@@ -292,6 +565,7 @@ public class GeneratorService {
         selection.setOption(option);
         selectionRepository.save(selection);
       }
+      publishChange(generator, ActivityType.PARTICIPANT_JOINED, user.id, user.id);
     }
   }
 
@@ -315,6 +589,10 @@ public class GeneratorService {
     }
 
     participantRepository.delete(participant);
+    recordParticipantTombstones(generator, participant);
+    optionRepository.recountSelectionsByGeneratorId(generatorId);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generatorId));
+    publishChange(generator, ActivityType.PARTICIPANT_LEFT, participantId, participantId);
   }
 
   public void leaveGenerator(Long generatorId, Long requesterId)
@@ -329,6 +607,10 @@ public class GeneratorService {
         participantRepository.findParticipantByUserIdAndGeneratorId(requesterId, generatorId);
 
     participantRepository.delete(participant);
+    recordParticipantTombstones(generator, participant);
+    optionRepository.recountSelectionsByGeneratorId(generatorId);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generatorId));
+    publishChange(generator, ActivityType.PARTICIPANT_LEFT, requesterId, requesterId);
   }
 
   public void toggleNotifications(Long generatorId, Long requesterId)
@@ -342,88 +624,300 @@ public class GeneratorService {
 
     participant.setNotifications(!participant.getNotifications());
     participantRepository.save(participant);
+    publishChange(participant.getGenerator(), ActivityType.GENERATOR_CHANGED, null);
   }
 
-  public List<Result> getMyNotifiedResults(Long requesterId) {
-    List<Result> results = new ArrayList<>();
-    List<Participant> participants = participantRepository.findParticipantsByUserId(requesterId);
+  // newest first; pass the id of the oldest result already shown as before to get the next page
+  public List<Result> getMyNotifiedResults(Long before, int limit, Long requesterId)
+      throws GeneratorServiceException {
+    if (limit < 1 || limit > MAX_RESULTS_PER_PAGE) {
+      throw new GeneratorServiceException(
+          "limit", "Limit has to be between 1 and " + MAX_RESULTS_PER_PAGE);
+    }
 
-    for (Participant participant : participants) {
-      if (participant.getNotifications()) {
-        for (Result result :
-            resultRepository.findResultsByGeneratorId(participant.getGenerator().id)) {
-          results.add(result);
-        }
-      }
+    return resultStore.findNotifiedResultsBefore(
+        requesterId, before == null ? Long.MAX_VALUE : before, limit);
+  }
+
+  // answers right away when there already are results after the given id, otherwise on the next
+  // draw
+  public DeferredResult<List<Result>> waitForMyNotifiedResults(
+      long after, String timeoutValue, Long requesterId) throws GeneratorServiceException {
+    Duration timeout;
+    try {
+      // accepts 30s and 1m as well as PT30S
+      timeout = DurationStyle.detectAndParse(timeoutValue);
+    } catch (IllegalArgumentException e) {
+      throw new GeneratorServiceException("timeout", "Timeout has to be a duration like 30s");
     }
 
-    results.sort((r1, r2) -> r2.id.compareTo(r1.id));
+    if (timeout.isNegative() || timeout.isZero() || timeout.compareTo(MAX_WAIT) > 0) {
+      throw new GeneratorServiceException(
+          "timeout", "Timeout has to be between 1 and " + MAX_WAIT.toSeconds() + " seconds");
+    }
 
-    return results;
+    return resultWaiter.await(requesterId, after, MAX_RESULTS_PER_PAGE, timeout);
   }
 
   public void prioritiseCategory(Long generatorId, String category, Long requesterId)
       throws GeneratorServiceException, GeneratorServiceAuthorizationException {
     Generator generator = getGeneratorById(generatorId, requesterId);
-    List<Option> options = generator.getOptions();
-    boolean allFavorised = true;
-
-    for (Option option : options) {
-      if (option.getCategories().contains(category)) {
-        Selection selection =
-            selectionRepository.findSelectionByParticipantUserIdAndOptionId(requesterId, option.id);
-        if (!selection.getFavorised()) {
-          allFavorised = false;
-          break;
-        }
-      }
-    }
+    Category prioritisedCategory =
+        categoryRepository.findCategoryByGeneratorIdAndName(generatorId, category);
 
-    for (Option option : options) {
-      if (option.getCategories().contains(category)) {
-        Selection selection =
-            selectionRepository.findSelectionByParticipantUserIdAndOptionId(requesterId, option.id);
-        if (allFavorised) {
-          selection.setFavorised(false);
-        } else {
-          selection.setFavorised(true);
-          selection.setExcluded(false);
-        }
-        selectionRepository.save(selection);
-      }
+    if (prioritisedCategory == null) {
+      return;
     }
+
+    Long participantId = getParticipant(generator, requesterId).id;
+    boolean allFavorised =
+        !selectionRepository.hasUnfavorisedSelectionsByCategoryId(
+            participantId, prioritisedCategory.id);
+
+    selectionRepository.favoriseSelectionsByCategoryId(
+        participantId, prioritisedCategory.id, !allFavorised, ChangeSequence.next());
+    optionRepository.recountSelectionsByCategoryId(prioritisedCategory.id);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generator.id));
+    publishChange(generator, ActivityType.SELECTION_TOGGLED, null);
   }
 
   public void excludeCategory(Long generatorId, String category, Long requesterId)
       throws GeneratorServiceException, GeneratorServiceAuthorizationException {
     Generator generator = getGeneratorById(generatorId, requesterId);
-    List<Option> options = generator.getOptions();
-    boolean allExcluded = true;
-
-    for (Option option : options) {
-      if (option.getCategories().contains(category)) {
-        Selection selection =
-            selectionRepository.findSelectionByParticipantUserIdAndOptionId(requesterId, option.id);
-        if (!selection.getExcluded()) {
-          allExcluded = false;
-          break;
+    Category excludedCategory =
+        categoryRepository.findCategoryByGeneratorIdAndName(generatorId, category);
+
+    if (excludedCategory == null) {
+      return;
+    }
+
+    Long participantId = getParticipant(generator, requesterId).id;
+    boolean allExcluded =
+        !selectionRepository.hasUnexcludedSelectionsByCategoryId(
+            participantId, excludedCategory.id);
+
+    selectionRepository.excludeSelectionsByCategoryId(
+        participantId, excludedCategory.id, !allExcluded, ChangeSequence.next());
+    optionRepository.recountSelectionsByCategoryId(excludedCategory.id);
+    eventPublisher.publishEvent(new GeneratorChangedEvent(generator.id));
+    publishChange(generator, ActivityType.SELECTION_TOGGLED, null);
+  }
+
+  private List<Result> drawResults(
+      Generator generator, int count, List<String> categories, User user)
+      throws GeneratorServiceException {
+    OptionSampler sampler = getSampler(generator);
+    RandomGenerator random = randomSource.current();
+    boolean filtered = !categories.isEmpty();
+
+    if (filtered && generator.getDrawMode() == DrawMode.BAG) {
+      // skipping the other categories would use up their turn in the bag
+      throw new GeneratorServiceException(
+          "categories", "Categories can't be filtered when drawing from a bag");
+    }
+
+    if (filtered && sampler.isEmpty(categories)) {
+      throw noValidOptions(filtered);
+    }
+
+    // a single draw searches the live weights, a batch or verifiable draw uses one frozen
+    // weighting; filtered ones freeze only the options of their categories
+    OptionSampler.Snapshot snapshot = null;
+    if (generator.getDrawMode() != DrawMode.BAG
+        && (count > 1 || generator.getDrawMode() == DrawMode.VERIFIABLE)) {
+      snapshot = filtered ? sampler.snapshot(categories) : sampler.snapshot();
+      if (snapshot == null) {
+        throw noValidOptions(filtered);
+      }
+    }
+
+    // verifiable draws share one seed and are told apart by their counter
+    long seed = 0;
+    String weightSnapshotHash = null;
+    if (generator.getDrawMode() == DrawMode.VERIFIABLE) {
+      seed = random.nextLong();
+      weightSnapshotHash = storeWeightSnapshot(snapshot.getWeightSnapshot());
+    }
+
+    List<Result> results = new ArrayList<>(count);
+
+    for (int counter = 0; counter < count; counter++) {
+      Result result = new Result();
+      result.setUser(user);
+      result.setGeneratorId(generator.id);
+
+      switch (generator.getDrawMode()) {
+        case BAG -> result.setOption(bagStore.next(generator.id, sampler, random));
+        case VERIFIABLE -> {
+          result.setOption(snapshot.sample(new CounterBasedRandom(seed, counter)));
+          result.setSeed(seed);
+          result.setCounter((long) counter);
+          result.setWeightSnapshotHash(weightSnapshotHash);
+        }
+        default -> {
+          if (snapshot != null) {
+            result.setOption(snapshot.sample(random));
+          } else if (filtered) {
+            result.setOption(sampler.sample(random, categories));
+          } else {
+            result.setOption(sampler.sample(random));
+          }
         }
       }
+
+      // the options can all be excluded between the check above and the draw
+      if (result.getOption() == null) {
+        throw noValidOptions(filtered);
+      }
+      results.add(result);
     }
 
-    for (Option option : options) {
-      if (option.getCategories().contains(category)) {
-        Selection selection =
-            selectionRepository.findSelectionByParticipantUserIdAndOptionId(requesterId, option.id);
-        if (allExcluded) {
-          selection.setExcluded(false);
-        } else {
-          selection.setExcluded(true);
-          selection.setFavorised(false);
+    return results;
+  }
+
+  private GeneratorServiceException noValidOptions(boolean filtered) {
+    return filtered
+        ? new GeneratorServiceException(
+            "categories", "No valid options available in these categories")
+        : new GeneratorServiceException("generator", "No valid options available");
+  }
+
+  private String storeWeightSnapshot(WeightSnapshot weightSnapshot) {
+    weightSnapshotRepository.insertIfAbsent(
+        weightSnapshot.hash, weightSnapshot.getGeneratorId(), weightSnapshot.getWeights());
+
+    return weightSnapshot.hash;
+  }
+
+  private OptionSampler getSampler(Generator generator) throws GeneratorServiceException {
+    OptionSampler sampler = samplerCache.get(generator.id, () -> buildSampler(generator));
+
+    if (sampler.isEmpty()) {
+      throw new GeneratorServiceException("generator", "No valid options available");
+    }
+
+    return sampler;
+  }
+
+  private OptionSampler buildSampler(Generator generator) {
+    // excluded options stay in the sampler with weight zero so toggling them back is a point
+    // update;
+    // the categories are fetched along because cached options are handed out after this session
+    List<Option> options = optionRepository.findOptionsWithCategoriesByGeneratorId(generator.id);
+    long[] weights = new long[options.size()];
+
+    for (int i = 0; i < weights.length; i++) {
+      Option option = options.get(i);
+      weights[i] =
+          OptionSampler.weightOf(option.getExcludedCount() > 0, option.getFavouriteCount());
+    }
+
+    return new OptionSampler(generator.id, options, weights);
+  }
+
+  private void publishChange(Generator generator, ActivityType type, Long id, Long... userIds) {
+    Set<Long> affectedUserIds = getAffectedUserIds(generator, userIds);
+    eventPublisher.publishEvent(
+        new GeneratorActivityEvent(affectedUserIds, new GeneratorActivity(type, generator.id, id)));
+  }
+
+  // results are not part of the generator data, so they are only announced to the streams
+  private void publishResult(Generator generator, List<Result> results) {
+    eventPublisher.publishEvent(
+        new ResultsDrawnEvent(
+            generator.id, results, getNotifiedUserIds(generator), getAffectedUserIds(generator)));
+  }
+
+  private Set<Long> getNotifiedUserIds(Generator generator) {
+    Set<Long> notifiedUserIds = new HashSet<>();
+    if (generator.getParticipants() != null) {
+      for (Participant participant : generator.getParticipants()) {
+        if (participant.getNotifications()) {
+          notifiedUserIds.add(participant.getUser().id);
         }
-        selectionRepository.save(selection);
       }
     }
+
+    return notifiedUserIds;
+  }
+
+  private Set<Long> getAffectedUserIds(Generator generator, Long... userIds) {
+    Set<Long> affectedUserIds = new HashSet<>(Arrays.asList(userIds));
+    if (generator.getParticipants() != null) {
+      for (Participant participant : generator.getParticipants()) {
+        affectedUserIds.add(participant.getUser().id);
+      }
+    }
+    return affectedUserIds;
+  }
+
+  private void recordTombstones(Set<Long> userIds, TombstoneType type, Long entityId) {
+    tombstoneRepository.saveAll(
+        userIds.stream().map(userId -> new Tombstone(userId, type, entityId)).toList());
+  }
+
+  // the user who left loses the whole generator, everyone else just the participant
+  private void recordParticipantTombstones(Generator generator, Participant participant) {
+    Long userId = participant.getUser().id;
+    recordTombstones(
+        getAffectedUserIds(generator, userId), TombstoneType.PARTICIPANT, participant.id);
+    recordTombstones(Set.of(userId), TombstoneType.GENERATOR, generator.id);
+  }
+
+  // The update is conditional on the flags that were read, so of two concurrent toggles only the
+  // first one changes the row and moves the option's counts. Returns false for the other one.
+  private boolean saveSelection(Selection selection, boolean favorised, boolean excluded) {
+    int updated =
+        selectionRepository.updateFlags(
+            selection.id,
+            selection.getFavorised(),
+            selection.getExcluded(),
+            favorised,
+            excluded,
+            ChangeSequence.next());
+    if (updated == 0) {
+      return false;
+    }
+
+    int excludedDelta = Boolean.compare(excluded, selection.getExcluded());
+    int favouriteDelta = Boolean.compare(favorised, selection.getFavorised());
+    if (excludedDelta != 0 || favouriteDelta != 0) {
+      optionRepository.adjustSelectionCounts(
+          selection.getOption().id, excludedDelta, favouriteDelta);
+    }
+    return true;
+  }
+
+  // looks the names up in the generator's categories and adds the ones it doesn't have yet
+  private Set<Category> resolveCategories(Generator generator, List<String> names) {
+    Map<String, Category> categories = new LinkedHashMap<>();
+    for (Category category :
+        categoryRepository.findCategoriesByGeneratorIdAndNameIn(generator.id, names)) {
+      categories.put(category.getName(), category);
+    }
+
+    Set<Category> resolved = new LinkedHashSet<>();
+    for (String name : names) {
+      Category category = categories.get(name);
+      if (category == null) {
+        category = categoryRepository.save(new Category(name, generator));
+        categories.put(name, category);
+      }
+      resolved.add(category);
+    }
+
+    return resolved;
+  }
+
+  private Participant getParticipant(Generator generator, Long userId)
+      throws GeneratorServiceException {
+    for (Participant participant : generator.getParticipants()) {
+      if (participant.getUser().id.equals(userId)) {
+        return participant;
+      }
+    }
+
+    throw new GeneratorServiceException("participant", "Participant not found in this generator");
   }
 
   private Option getOptionById(Long optionId) throws GeneratorServiceException {
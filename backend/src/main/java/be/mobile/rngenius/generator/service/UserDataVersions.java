@@ -0,0 +1,31 @@
+package be.mobile.rngenius.generator.service;
+
+import be.mobile.rngenius.generator.model.UserDataVersion;
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Per-user version of everything /generator/myGenerators returns, used as its ETag. It is read
+// from the rows behind the summaries, so every instance hands out the same tag for the same data.
+@Component
+public class UserDataVersions {
+
+  @Autowired private GeneratorRepository generatorRepository;
+
+  public String eTag(Long userId) {
+    UserDataVersion version = generatorRepository.findUserDataVersionByParticipantUserId(userId);
+    return "\""
+        + version.getGeneratorCount()
+        + "."
+        + version.getGeneratorSeq()
+        + "."
+        + version.getOptionCount()
+        + "."
+        + version.getOptionSeq()
+        + "."
+        + version.getParticipantCount()
+        + "."
+        + version.getParticipantSeq()
+        + "\"";
+  }
+}
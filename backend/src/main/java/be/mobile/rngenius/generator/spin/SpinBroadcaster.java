@@ -0,0 +1,132 @@
+package be.mobile.rngenius.generator.spin;
+
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import be.mobile.rngenius.generator.event.GeneratorActivityEvent;
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+// Broadcasts committed draws to the spin sockets of their generator. The message is serialised
+// once on the committing thread and queued on every socket by one of a few single-threaded
+// stripes, so every generator's spins arrive in order and the request thread never waits for a
+// socket. Sockets of participants that left and of deleted generators are closed.
+@Component
+public class SpinBroadcaster {
+
+  private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+
+  private static final int BUFFER_SIZE_LIMIT_BYTES = 64 * 1024;
+
+  private final Map<Long, Set<SpinSession>> sessions = new ConcurrentHashMap<>();
+
+  private final Map<String, SpinSession> spinSessions = new ConcurrentHashMap<>();
+
+  private final ExecutorService[] stripes;
+
+  private final ExecutorService closer = Executors.newSingleThreadExecutor();
+
+  private final ObjectMapper objectMapper;
+
+  public SpinBroadcaster(
+      ObjectMapper objectMapper, @Value("${rngenius.spin.threads:4}") int threads) {
+    this.objectMapper = objectMapper;
+    this.stripes = new ExecutorService[threads];
+    for (int i = 0; i < threads; i++) {
+      stripes[i] = Executors.newSingleThreadExecutor();
+    }
+  }
+
+  public void register(Long generatorId, WebSocketSession session) {
+    SpinSession spinSession =
+        new SpinSession(session, SEND_TIME_LIMIT_MILLIS, BUFFER_SIZE_LIMIT_BYTES, closer);
+    spinSessions.put(session.getId(), spinSession);
+    sessions.computeIfAbsent(generatorId, id -> ConcurrentHashMap.newKeySet()).add(spinSession);
+  }
+
+  public void unregister(Long generatorId, WebSocketSession session) {
+    SpinSession spinSession = spinSessions.remove(session.getId());
+    if (spinSession == null) {
+      return;
+    }
+
+    sessions.computeIfPresent(
+        generatorId,
+        (id, generatorSessions) -> {
+          generatorSessions.remove(spinSession);
+          return generatorSessions.isEmpty() ? null : generatorSessions;
+        });
+  }
+
+  public void send(Long generatorId, WebSocketSession session, TextMessage message) {
+    SpinSession spinSession = spinSessions.get(session.getId());
+    if (spinSession != null) {
+      stripe(generatorId).execute(() -> spinSession.send(message.getPayload()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onResultsDrawn(ResultsDrawnEvent event) throws JsonProcessingException {
+    Set<SpinSession> generatorSessions = sessions.get(event.generatorId());
+    if (generatorSessions == null) {
+      return;
+    }
+
+    String message =
+        objectMapper.writeValueAsString(new SpinMessage(event.generatorId(), event.results()));
+
+    stripe(event.generatorId())
+        .execute(() -> generatorSessions.forEach(session -> session.send(message)));
+  }
+
+  // the handshake only lets participants in, so their sockets go when they stop being one
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onActivity(GeneratorActivityEvent event) {
+    GeneratorActivity activity = event.activity();
+    if (activity.type() != ActivityType.PARTICIPANT_LEFT
+        && activity.type() != ActivityType.GENERATOR_DELETED) {
+      return;
+    }
+
+    Set<SpinSession> generatorSessions = sessions.get(activity.generatorId());
+    if (generatorSessions == null) {
+      return;
+    }
+
+    for (SpinSession session : generatorSessions) {
+      if (activity.type() == ActivityType.GENERATOR_DELETED
+          || activity.id().equals(session.getUserId())) {
+        unregister(activity.generatorId(), session.getSession());
+        session.close(CloseStatus.POLICY_VIOLATION);
+      }
+    }
+  }
+
+  public int sessionCount() {
+    return spinSessions.size();
+  }
+
+  @PreDestroy
+  public void close() {
+    for (ExecutorService stripe : stripes) {
+      stripe.shutdownNow();
+    }
+    closer.shutdownNow();
+  }
+
+  private ExecutorService stripe(Long generatorId) {
+    return stripes[(int) Math.floorMod(generatorId, (long) stripes.length)];
+  }
+}
@@ -0,0 +1,68 @@
+package be.mobile.rngenius.generator.spin;
+
+import be.mobile.rngenius.auth.jwt.JwtUtil;
+import be.mobile.rngenius.participant.repo.ParticipantRepository;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+// Only participants of the generator in the path may open its spin socket.
+@Component
+public class SpinHandshakeInterceptor implements HandshakeInterceptor {
+
+  static final String GENERATOR_ID = "generatorId";
+
+  static final String USER_ID = "userId";
+
+  @Autowired private JwtUtil jwtUtil;
+
+  @Autowired private ParticipantRepository participantRepository;
+
+  @Override
+  public boolean beforeHandshake(
+      ServerHttpRequest request,
+      ServerHttpResponse response,
+      WebSocketHandler wsHandler,
+      Map<String, Object> attributes) {
+    Long generatorId = parseGeneratorId(request.getURI().getPath());
+    String token = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+    if (generatorId == null || token == null) {
+      response.setStatusCode(HttpStatus.BAD_REQUEST);
+      return false;
+    }
+
+    Long userId = jwtUtil.retrieveRequesterId(token);
+    if (participantRepository.findParticipantByUserIdAndGeneratorId(userId, generatorId) == null) {
+      response.setStatusCode(HttpStatus.FORBIDDEN);
+      return false;
+    }
+
+    attributes.put(GENERATOR_ID, generatorId);
+    attributes.put(USER_ID, userId);
+    return true;
+  }
+
+  @Override
+  public void afterHandshake(
+      ServerHttpRequest request,
+      ServerHttpResponse response,
+      WebSocketHandler wsHandler,
+      Exception exception) {}
+
+  // the path is /generator/{id}/spins
+  private static Long parseGeneratorId(String path) {
+    String[] segments = path.split("/");
+    try {
+      return Long.parseLong(segments[segments.length - 2]);
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+}
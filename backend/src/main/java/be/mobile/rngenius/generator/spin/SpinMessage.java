@@ -0,0 +1,13 @@
+package be.mobile.rngenius.generator.spin;
+
+import be.mobile.rngenius.result.model.Result;
+import java.util.List;
+
+// Sent to every socket of the generator once a draw commits. Clients start their animation on
+// serverTime, corrected by the offset they measured with PING/PONG.
+public record SpinMessage(String type, Long generatorId, long serverTime, List<Result> results) {
+
+  public SpinMessage(Long generatorId, List<Result> results) {
+    this("SPIN", generatorId, System.currentTimeMillis(), results);
+  }
+}
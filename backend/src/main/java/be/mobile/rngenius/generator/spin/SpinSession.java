@@ -0,0 +1,120 @@
+package be.mobile.rngenius.generator.spin;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+// One spin socket. Messages are queued and written one at a time with the container's async send,
+// so whoever sends only ever waits for the queue. A socket that can't keep up drops messages past
+// the buffer limit, and one whose send stays stuck past the time limit is closed.
+class SpinSession {
+
+  private final WebSocketSession session;
+
+  private final RemoteEndpoint.Async remote;
+
+  private final int bufferSizeLimit;
+
+  private final Executor closer;
+
+  // guarded by this
+  private final Queue<String> queued = new ArrayDeque<>();
+
+  private int bufferSize;
+
+  private boolean sending;
+
+  private boolean closed;
+
+  SpinSession(
+      WebSocketSession session, int sendTimeLimitMillis, int bufferSizeLimit, Executor closer) {
+    this.session = session;
+    // spin sockets are plain websockets, so the container's session is always underneath
+    this.remote =
+        ((NativeWebSocketSession) session).getNativeSession(Session.class).getAsyncRemote();
+    this.remote.setSendTimeout(sendTimeLimitMillis);
+    this.bufferSizeLimit = bufferSizeLimit;
+    this.closer = closer;
+  }
+
+  WebSocketSession getSession() {
+    return session;
+  }
+
+  Long getUserId() {
+    return (Long) session.getAttributes().get(SpinHandshakeInterceptor.USER_ID);
+  }
+
+  void send(String text) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      if (sending) {
+        if (bufferSize + text.length() <= bufferSizeLimit) {
+          queued.add(text);
+          bufferSize += text.length();
+        }
+        return;
+      }
+      sending = true;
+    }
+
+    write(text);
+  }
+
+  // closing writes a close frame, which can wait on the same stuck socket
+  void close(CloseStatus status) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queued.clear();
+      bufferSize = 0;
+    }
+
+    closer.execute(
+        () -> {
+          try {
+            session.close(status);
+          } catch (Exception ignored) {
+            // already gone
+          }
+        });
+  }
+
+  private void write(String text) {
+    try {
+      remote.sendText(text, this::onSent);
+    } catch (RuntimeException e) {
+      close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+  }
+
+  private void onSent(SendResult result) {
+    if (!result.isOK()) {
+      // also how a send that ran past the time limit ends
+      close(CloseStatus.SESSION_NOT_RELIABLE);
+      return;
+    }
+
+    String next;
+    synchronized (this) {
+      next = closed ? null : queued.poll();
+      if (next == null) {
+        sending = false;
+        return;
+      }
+      bufferSize -= next.length();
+    }
+
+    write(next);
+  }
+}
@@ -0,0 +1,24 @@
+package be.mobile.rngenius.generator.spin;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class SpinSocketConfig implements WebSocketConfigurer {
+
+  @Autowired private SpinSocketHandler spinSocketHandler;
+
+  @Autowired private SpinHandshakeInterceptor spinHandshakeInterceptor;
+
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    registry
+        .addHandler(spinSocketHandler, "/generator/*/spins")
+        .addInterceptors(spinHandshakeInterceptor)
+        .setAllowedOrigins("*");
+  }
+}
@@ -0,0 +1,50 @@
+package be.mobile.rngenius.generator.spin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+// Registers spin sockets with the broadcaster and answers clock PINGs, so clients can line their
+// animation up with the server time in SPIN messages.
+@Component
+public class SpinSocketHandler extends TextWebSocketHandler {
+
+  @Autowired private SpinBroadcaster spinBroadcaster;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) {
+    spinBroadcaster.register(generatorId(session), session);
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+    spinBroadcaster.unregister(generatorId(session), session);
+  }
+
+  @Override
+  protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    JsonNode ping = objectMapper.readTree(message.getPayload());
+
+    if ("PING".equals(ping.path("type").asText())) {
+      String pong =
+          objectMapper.writeValueAsString(
+              Map.of(
+                  "type", "PONG",
+                  "clientTime", ping.path("clientTime").asLong(),
+                  "serverTime", System.currentTimeMillis()));
+      spinBroadcaster.send(generatorId(session), session, new TextMessage(pong));
+    }
+  }
+
+  private static Long generatorId(WebSocketSession session) {
+    return (Long) session.getAttributes().get(SpinHandshakeInterceptor.GENERATOR_ID);
+  }
+}
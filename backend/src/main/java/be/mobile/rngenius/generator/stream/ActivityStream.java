@@ -0,0 +1,134 @@
+package be.mobile.rngenius.generator.stream;
+
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import be.mobile.rngenius.generator.event.GeneratorActivityEvent;
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.result.model.Result;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Fans generator activity out to the open /generator/stream connections of every affected user.
+// A subscriber whose send is stuck is dropped, and the pool gets a thread in place of the stuck one
+// until that send returns, so stalled clients can't take all the threads.
+@Component
+public class ActivityStream {
+
+  private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+  private static final long SEND_TIME_LIMIT_MILLIS = 5_000;
+
+  private final Map<Long, Set<ActivitySubscriber>> subscribers = new ConcurrentHashMap<>();
+
+  private final ThreadPoolExecutor executor;
+
+  private final int queueCapacity;
+
+  public ActivityStream(
+      @Value("${rngenius.stream.queue-capacity:64}") int queueCapacity,
+      @Value("${rngenius.stream.threads:4}") int threads) {
+    this.queueCapacity = queueCapacity;
+    this.executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(threads);
+  }
+
+  public SseEmitter subscribe(Long userId) {
+    SseEmitter emitter = new SseEmitter(TIMEOUT_MILLIS);
+    ActivitySubscriber subscriber = new ActivitySubscriber(emitter, queueCapacity, executor);
+
+    subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+    Runnable remove = () -> unsubscribe(userId, subscriber);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onActivity(GeneratorActivityEvent event) {
+    for (Long userId : event.userIds()) {
+      Set<ActivitySubscriber> userSubscribers = subscribers.get(userId);
+      if (userSubscribers != null) {
+        userSubscribers.forEach(subscriber -> subscriber.offer(event.activity()));
+      }
+    }
+  }
+
+  // the ids of drawn results can be assigned at commit, so this is built after it
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onResultsDrawn(ResultsDrawnEvent event) {
+    List<Result> results = event.results();
+    Long resultId = results.size() == 1 ? results.get(0).id : null;
+    onActivity(
+        new GeneratorActivityEvent(
+            event.affectedUserIds(),
+            new GeneratorActivity(ActivityType.RESULT, event.generatorId(), resultId)));
+  }
+
+  // keeps idle connections open through proxies and notices clients that went away
+  @Scheduled(fixedDelayString = "${rngenius.stream.heartbeat:25000}")
+  public void heartbeat() {
+    subscribers
+        .values()
+        .forEach(userSubscribers -> userSubscribers.forEach(ActivitySubscriber::heartbeat));
+  }
+
+  @Scheduled(fixedDelay = 1000)
+  public void dropStalled() {
+    subscribers.forEach(
+        (userId, userSubscribers) ->
+            userSubscribers.forEach(
+                subscriber -> {
+                  if (subscriber.abortIfStalled(SEND_TIME_LIMIT_MILLIS, () -> resizePool(-1))) {
+                    resizePool(1);
+                    unsubscribe(userId, subscriber);
+                  }
+                }));
+  }
+
+  public int subscriberCount() {
+    return subscribers.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @PreDestroy
+  public void close() {
+    subscribers
+        .values()
+        .forEach(userSubscribers -> userSubscribers.forEach(s -> s.getEmitter().complete()));
+    executor.shutdownNow();
+  }
+
+  // the maximum can't drop below the core size, so growing starts with it and shrinking ends with
+  // it
+  private synchronized void resizePool(int delta) {
+    int size = executor.getCorePoolSize() + delta;
+    if (delta > 0) {
+      executor.setMaximumPoolSize(size);
+      executor.setCorePoolSize(size);
+    } else {
+      executor.setCorePoolSize(size);
+      executor.setMaximumPoolSize(size);
+    }
+  }
+
+  private void unsubscribe(Long userId, ActivitySubscriber subscriber) {
+    subscriber.close();
+    subscribers.computeIfPresent(
+        userId,
+        (id, userSubscribers) -> {
+          userSubscribers.remove(subscriber);
+          return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+  }
+}
@@ -0,0 +1,158 @@
+package be.mobile.rngenius.generator.stream;
+
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+// One open stream. Activities are queued by the publishing thread and written by the executor, so
+// a slow client only ever fills its own bounded queue. A send that stays stuck past the time limit
+// gets the subscriber aborted; the emitter is completed once the container lets go of the send.
+public class ActivitySubscriber {
+
+  private static final GeneratorActivity RESYNC =
+      new GeneratorActivity(ActivityType.RESYNC, null, null);
+
+  private final SseEmitter emitter;
+
+  private final BlockingQueue<GeneratorActivity> queue;
+
+  private final Executor executor;
+
+  private final AtomicBoolean draining = new AtomicBoolean();
+
+  private volatile boolean closed;
+
+  // guarded by this, when the running send started and what to do once an aborted one returns
+  private long sendStartedAt;
+
+  private Runnable onAbortedSendReturned;
+
+  public ActivitySubscriber(SseEmitter emitter, int capacity, Executor executor) {
+    this.emitter = emitter;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.executor = executor;
+  }
+
+  public SseEmitter getEmitter() {
+    return emitter;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public void offer(GeneratorActivity activity) {
+    if (closed) {
+      return;
+    }
+
+    if (!queue.offer(activity)) {
+      // whatever was queued is stale by now, the client has to refetch anyway
+      synchronized (queue) {
+        queue.clear();
+        queue.offer(RESYNC);
+      }
+    }
+
+    if (draining.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  public void heartbeat() {
+    if (closed || draining.get()) {
+      return;
+    }
+
+    executor.execute(
+        () -> {
+          try {
+            send(SseEmitter.event().comment("keepalive"));
+          } catch (IOException | IllegalStateException e) {
+            fail(e);
+          }
+        });
+  }
+
+  public void close() {
+    closed = true;
+    queue.clear();
+  }
+
+  // true when a send has been running for longer than the limit, the subscriber is closed then
+  public boolean abortIfStalled(long sendTimeLimitMillis, Runnable onSendReturned) {
+    synchronized (this) {
+      if (closed
+          || sendStartedAt == 0
+          || System.currentTimeMillis() - sendStartedAt < sendTimeLimitMillis) {
+        return false;
+      }
+      onAbortedSendReturned = onSendReturned;
+    }
+
+    close();
+    return true;
+  }
+
+  private void drain() {
+    try {
+      GeneratorActivity activity;
+      while (!closed && (activity = poll()) != null) {
+        send(
+            SseEmitter.event()
+                .name(activity.type().name())
+                .data(activity, MediaType.APPLICATION_JSON));
+      }
+    } catch (IOException | IllegalStateException e) {
+      fail(e);
+    } finally {
+      draining.set(false);
+    }
+
+    // an activity offered between the last poll and resetting the flag would otherwise wait
+    if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void send(SseEventBuilder event) throws IOException {
+    synchronized (this) {
+      sendStartedAt = System.currentTimeMillis();
+    }
+
+    try {
+      emitter.send(event);
+    } finally {
+      Runnable onSendReturned;
+      synchronized (this) {
+        sendStartedAt = 0;
+        onSendReturned = onAbortedSendReturned;
+        onAbortedSendReturned = null;
+      }
+
+      // completing needs the emitter the stuck send was holding on to
+      if (onSendReturned != null) {
+        emitter.completeWithError(new IOException("Send took longer than the time limit"));
+        onSendReturned.run();
+      }
+    }
+  }
+
+  private void fail(Exception e) {
+    close();
+    emitter.completeWithError(e);
+  }
+
+  private GeneratorActivity poll() {
+    synchronized (queue) {
+      return queue.poll();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package be.mobile.rngenius.generator.wait;
+
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.store.ResultStore;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+// Parks /generator/myResults/wait requests without holding a servlet thread. A committed draw wakes
+// the waiting requests of every user it notifies, which then fetch what is new since their cursor.
+@Component
+public class ResultWaiter {
+
+  private final Map<Long, Set<Waiting>> waiting = new ConcurrentHashMap<>();
+
+  private final ExecutorService executor;
+
+  private final ResultStore resultStore;
+
+  private final TransactionTemplate transactionTemplate;
+
+  public ResultWaiter(
+      ResultStore resultStore,
+      TransactionTemplate transactionTemplate,
+      @Value("${rngenius.wait.threads:2}") int threads) {
+    this.resultStore = resultStore;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = Executors.newFixedThreadPool(threads);
+  }
+
+  // completes with an empty list when nothing was drawn before the timeout
+  public DeferredResult<List<Result>> await(Long userId, long after, int limit, Duration timeout) {
+    DeferredResult<List<Result>> deferred = new DeferredResult<>(timeout.toMillis(), List.of());
+    Waiting request = new Waiting(after, limit, deferred);
+
+    waiting.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(request);
+
+    Runnable remove = () -> remove(userId, request);
+    deferred.onCompletion(remove);
+    deferred.onError(e -> remove.run());
+
+    // registered first, so a draw committed while checking still wakes the request
+    complete(userId, request);
+
+    return deferred;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onResultsDrawn(ResultsDrawnEvent event) {
+    for (Long userId : event.notifiedUserIds()) {
+      Set<Waiting> userWaiting = waiting.get(userId);
+      if (userWaiting != null) {
+        userWaiting.forEach(request -> executor.execute(() -> complete(userId, request)));
+      }
+    }
+  }
+
+  public int waitingCount() {
+    return waiting.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @PreDestroy
+  public void close() {
+    waiting
+        .values()
+        .forEach(userWaiting -> userWaiting.forEach(r -> r.deferred().setResult(List.of())));
+    executor.shutdownNow();
+  }
+
+  private void complete(Long userId, Waiting request) {
+    if (request.deferred().isSetOrExpired()) {
+      return;
+    }
+
+    List<Result> results = transactionTemplate.execute(status -> fetch(userId, request));
+    if (!results.isEmpty()) {
+      request.deferred().setResult(results);
+    }
+  }
+
+  // the response is written after the session is gone, so the categories are loaded up front
+  private List<Result> fetch(Long userId, Waiting request) {
+    List<Result> results =
+        resultStore.findNotifiedResultsAfter(userId, request.after(), request.limit());
+    results.forEach(result -> Hibernate.initialize(result.getOption().getCategorySet()));
+    return results;
+  }
+
+  private void remove(Long userId, Waiting request) {
+    waiting.computeIfPresent(
+        userId,
+        (id, userWaiting) -> {
+          userWaiting.remove(request);
+          return userWaiting.isEmpty() ? null : userWaiting;
+        });
+  }
+
+  private record Waiting(long after, int limit, DeferredResult<List<Result>> deferred) {}
+}
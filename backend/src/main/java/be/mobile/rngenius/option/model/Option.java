@@ -1,25 +1,38 @@
 package be.mobile.rngenius.option.model;
 
+import be.mobile.rngenius.category.model.Category;
 import be.mobile.rngenius.generator.model.Generator;
 import be.mobile.rngenius.result.model.Result;
 import be.mobile.rngenius.selection.model.Selection;
+import be.mobile.rngenius.sync.model.ChangeSequenceListener;
+import be.mobile.rngenius.sync.model.Sequenced;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity(name = "options")
-public class Option {
+@EntityListeners(ChangeSequenceListener.class)
+public class Option implements Sequenced {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,17 +41,38 @@ public class Option {
   @NotBlank(message = "Name is required")
   private String name;
 
-  @NotEmpty(message = "At least one category is required")
-  @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-  private List<String> categories;
+  @ManyToMany
+  @JoinTable(
+      name = "option_categories",
+      joinColumns = @JoinColumn(name = "option_id"),
+      inverseJoinColumns = @JoinColumn(name = "category_id"),
+      indexes = @Index(name = "idx_option_categories_category", columnList = "category_id"))
+  @OrderBy("id")
+  @BatchSize(size = 64)
+  private Set<Category> categories = new LinkedHashSet<>();
+
+  // names as sent by the client, resolved against the generator's categories when saved
+  @Transient private List<String> categoryNames;
 
   private String description;
 
+  // selection aggregates, only ever written by the bulk updates in OptionRepository
+  @ColumnDefault("0")
+  @Column(insertable = false, updatable = false)
+  private int excludedCount;
+
+  @ColumnDefault("0")
+  @Column(insertable = false, updatable = false)
+  private int favouriteCount;
+
+  private Long changeSeq;
+
   @ManyToOne
   @JoinColumn(name = "generator_id")
   private Generator generator;
 
   @OneToMany(mappedBy = "option", cascade = CascadeType.REMOVE)
+  @BatchSize(size = 64)
   private List<Selection> selections;
 
   @OneToMany(mappedBy = "option", cascade = CascadeType.REMOVE)
@@ -46,7 +80,7 @@ public class Option {
 
   public Option(String name, List<String> categories, String description) {
     this.name = name;
-    this.categories = categories;
+    this.categoryNames = categories;
     this.description = description;
   }
 
@@ -56,7 +90,16 @@ public class Option {
     return name;
   }
 
+  @NotEmpty(message = "At least one category is required")
   public List<String> getCategories() {
+    if (categoryNames != null) {
+      return categoryNames;
+    }
+    return categories.stream().map(Category::getName).toList();
+  }
+
+  @JsonIgnore
+  public Set<Category> getCategorySet() {
     return categories;
   }
 
@@ -64,6 +107,16 @@ public class Option {
     return description;
   }
 
+  @JsonIgnore
+  public int getExcludedCount() {
+    return excludedCount;
+  }
+
+  @JsonIgnore
+  public int getFavouriteCount() {
+    return favouriteCount;
+  }
+
   @JsonIgnore
   public Generator getGenerator() {
     return generator;
@@ -84,21 +137,40 @@ public class Option {
   }
 
   public void setCategories(List<String> categories) {
+    this.categoryNames = categories;
+  }
+
+  public void setCategorySet(Set<Category> categories) {
     this.categories = categories;
+    this.categoryNames = null;
+    this.changeSeq = null;
   }
 
-  public void addCategory(String category) {
-    this.categories.add(category);
+  public void addCategory(Category category) {
+    if (this.categories.add(category)) {
+      // a category change alone doesn't make the option dirty, the listener stamps it again
+      this.changeSeq = null;
+    }
   }
 
-  public void removeCategory(String category) {
-    this.categories.remove(category);
+  public void removeCategory(Category category) {
+    if (this.categories.remove(category)) {
+      this.changeSeq = null;
+    }
   }
 
   public void setDescription(String description) {
     this.description = description;
   }
 
+  public void setExcludedCount(int excludedCount) {
+    this.excludedCount = excludedCount;
+  }
+
+  public void setFavouriteCount(int favouriteCount) {
+    this.favouriteCount = favouriteCount;
+  }
+
   public void setGenerator(Generator generator) {
     this.generator = generator;
   }
@@ -110,4 +182,15 @@ public class Option {
   public void setResults(List<Result> results) {
     this.results = results;
   }
+
+  @JsonIgnore
+  @Override
+  public Long getChangeSeq() {
+    return changeSeq;
+  }
+
+  @Override
+  public void setChangeSeq(Long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
 }
@@ -0,0 +1,18 @@
+package be.mobile.rngenius.option.repo;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Fills the option selection counts from the selections table, for rows created before they
+// existed.
+@Component
+public class InitSelectionCounts {
+
+  @Autowired private OptionRepository optionRepository;
+
+  @PostConstruct
+  public void recountSelections() {
+    optionRepository.recountSelections();
+  }
+}
@@ -1,11 +1,76 @@
 package be.mobile.rngenius.option.repo;
 
 import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.selection.model.OptionSelectionSummary;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface OptionRepository extends JpaRepository<Option, Long> {
 
   Option findOptionById(Long id);
+
+  // the categories come in the same statement instead of one per batch of options
+  @Query(
+      "SELECT o FROM options o LEFT JOIN FETCH o.categories WHERE o.generator.id = ?1"
+          + " ORDER BY o.id")
+  List<Option> findOptionsWithCategoriesByGeneratorId(Long generatorId);
+
+  @Query(
+      "SELECT o.id AS optionId,"
+          + " CASE WHEN o.excludedCount > 0 THEN true ELSE false END AS excluded,"
+          + " o.favouriteCount AS timesFavorised"
+          + " FROM options o WHERE o.id = ?1")
+  OptionSelectionSummary findOptionSelectionSummaryById(Long id);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE options o SET o.excludedCount = o.excludedCount + ?2,"
+          + " o.favouriteCount = o.favouriteCount + ?3"
+          + " WHERE o.id = ?1")
+  void adjustSelectionCounts(Long id, int excludedDelta, int favouriteDelta);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE options o SET"
+          + " o.excludedCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.excluded = true),"
+          + " o.favouriteCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.favorised = true)"
+          + " WHERE o.generator.id = ?1")
+  void recountSelectionsByGeneratorId(Long generatorId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE options o SET"
+          + " o.excludedCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.excluded = true),"
+          + " o.favouriteCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.favorised = true)"
+          + " WHERE o.id IN (SELECT p.id FROM options p JOIN p.categories c WHERE c.id = ?1)")
+  void recountSelectionsByCategoryId(Long categoryId);
+
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE options o SET"
+          + " o.excludedCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.excluded = true),"
+          + " o.favouriteCount = (SELECT COUNT(s) FROM selections s"
+          + " WHERE s.option = o AND s.favorised = true)")
+  int recountSelections();
+
+  @Query(
+      "SELECT o FROM options o JOIN o.generator g JOIN g.participants p"
+          + " WHERE p.user.id = ?1 AND (o.changeSeq > ?2 OR p.changeSeq > ?2) ORDER BY o.id")
+  List<Option> findOptionsChangedSince(Long userId, long since);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE options x SET x.changeSeq = 1 WHERE x.changeSeq IS NULL")
+  int initChangeSeqs();
 }
@@ -2,20 +2,32 @@ package be.mobile.rngenius.participant.model;
 
 import be.mobile.rngenius.generator.model.Generator;
 import be.mobile.rngenius.selection.model.Selection;
+import be.mobile.rngenius.sync.model.ChangeSequenceListener;
+import be.mobile.rngenius.sync.model.Sequenced;
 import be.mobile.rngenius.user.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
 
 @Entity(name = "participants")
-public class Participant {
+@Table(
+    indexes = {
+      @Index(name = "idx_participants_user_generator", columnList = "user_id, generator_id"),
+      @Index(name = "idx_participants_generator", columnList = "generator_id")
+    })
+@EntityListeners(ChangeSequenceListener.class)
+public class Participant implements Sequenced {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +35,8 @@ public class Participant {
 
   boolean notifications;
 
+  private Long changeSeq;
+
   @ManyToOne
   @JoinColumn(name = "user_id")
   private User user;
@@ -32,6 +46,7 @@ public class Participant {
   private Generator generator;
 
   @OneToMany(mappedBy = "participant", cascade = CascadeType.REMOVE)
+  @BatchSize(size = 64)
   private List<Selection> selections;
 
   public Participant() {
@@ -70,4 +85,15 @@ public class Participant {
   public void setSelections(List<Selection> selections) {
     this.selections = selections;
   }
+
+  @JsonIgnore
+  @Override
+  public Long getChangeSeq() {
+    return changeSeq;
+  }
+
+  @Override
+  public void setChangeSeq(Long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
 }
@@ -1,9 +1,13 @@
 package be.mobile.rngenius.participant.repo;
 
+import be.mobile.rngenius.generator.model.response.ParticipantSyncRes;
 import be.mobile.rngenius.participant.model.Participant;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ParticipantRepository extends JpaRepository<Participant, Long> {
@@ -11,4 +15,20 @@ public interface ParticipantRepository extends JpaRepository<Participant, Long>
   Participant findParticipantByUserIdAndGeneratorId(Long userId, Long generatorId);
 
   List<Participant> findParticipantsByUserId(Long userId);
+
+  @Query(
+      "SELECT p.generator.id FROM participants p WHERE p.user.id = ?1 AND p.notifications = true")
+  List<Long> findNotifiedGeneratorIdsByUserId(Long userId);
+
+  @Query(
+      "SELECT new be.mobile.rngenius.generator.model.response.ParticipantSyncRes("
+          + "q.id, g.id, q.notifications, q.user)"
+          + " FROM participants q JOIN q.generator g JOIN g.participants p"
+          + " WHERE p.user.id = ?1 AND (q.changeSeq > ?2 OR p.changeSeq > ?2) ORDER BY q.id")
+  List<ParticipantSyncRes> findParticipantsChangedSince(Long userId, long since);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE participants x SET x.changeSeq = 1 WHERE x.changeSeq IS NULL")
+  int initChangeSeqs();
 }
@@ -0,0 +1,88 @@
+package be.mobile.rngenius.result.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The ids of every generator's results in the log, ascending. Paging is a binary search for the
+// cursor and a walk down, or up when reading oldest first. Rebuilt from the segments on startup.
+class GeneratorIndex {
+
+  private final Map<Long, Ids> generators = new ConcurrentHashMap<>();
+
+  // ids have to be added in ascending order
+  void add(long generatorId, long id) {
+    generators.computeIfAbsent(generatorId, key -> new Ids()).add(id);
+  }
+
+  // newest first, ids between after and before, both exclusive
+  List<Long> newest(long generatorId, long before, long after, int limit) {
+    Ids ids = generators.get(generatorId);
+    return ids == null ? List.of() : ids.newest(before, after, limit);
+  }
+
+  // oldest first, ids above after, exclusive
+  List<Long> oldestAfter(long generatorId, long after, int limit) {
+    Ids ids = generators.get(generatorId);
+    return ids == null ? List.of() : ids.oldestAfter(after, limit);
+  }
+
+  void dropBefore(long firstId) {
+    generators.values().removeIf(ids -> ids.dropBefore(firstId));
+  }
+
+  private static class Ids {
+
+    private long[] ids = new long[16];
+
+    private int start;
+
+    private int end;
+
+    synchronized void add(long id) {
+      if (end == ids.length) {
+        // drop what was truncated off the front before growing
+        int size = end - start;
+        long[] grown = size * 2 > ids.length ? new long[ids.length * 2] : ids;
+        System.arraycopy(ids, start, grown, 0, size);
+        ids = grown;
+        start = 0;
+        end = size;
+      }
+      ids[end++] = id;
+    }
+
+    synchronized List<Long> newest(long before, long after, int limit) {
+      int from = Arrays.binarySearch(ids, start, end, before);
+      int index = (from >= 0 ? from : -from - 1) - 1;
+
+      List<Long> newest = new ArrayList<>(Math.min(limit, Math.max(index - start + 1, 0)));
+      while (index >= start && newest.size() < limit && ids[index] > after) {
+        newest.add(ids[index--]);
+      }
+
+      return newest;
+    }
+
+    synchronized List<Long> oldestAfter(long after, int limit) {
+      int from = Arrays.binarySearch(ids, start, end, after);
+      int index = from >= 0 ? from + 1 : -from - 1;
+
+      List<Long> oldest = new ArrayList<>(Math.min(limit, end - index));
+      while (index < end && oldest.size() < limit) {
+        oldest.add(ids[index++]);
+      }
+
+      return oldest;
+    }
+
+    // true when nothing is left
+    synchronized boolean dropBefore(long firstId) {
+      int from = Arrays.binarySearch(ids, start, end, firstId);
+      start = from >= 0 ? from : -from - 1;
+      return start == end;
+    }
+  }
+}
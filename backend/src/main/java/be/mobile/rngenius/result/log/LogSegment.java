@@ -0,0 +1,239 @@
+package be.mobile.rngenius.result.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// One memory-mapped file of fixed-size records. The record with id i sits at slot i - baseId, so
+// reading a result by id needs no index. The file is created at its full size and a zeroed slot
+// marks the end.
+class LogSegment {
+
+  static final int RECORD_SIZE = 112;
+
+  private static final int HEADER_SIZE = 16;
+
+  private static final int MAGIC = 0x524e474c;
+
+  private static final int VERSION = 1;
+
+  private static final int CHECKSUMMED = RECORD_SIZE - Integer.BYTES;
+
+  private static final int HAS_SEED = 1;
+
+  private static final int HAS_COUNTER = 2;
+
+  private static final int HAS_HASH = 4;
+
+  private static final int HASH_SIZE = 32;
+
+  private final Path path;
+
+  private final long baseId;
+
+  private final int capacity;
+
+  private final MappedByteBuffer buffer;
+
+  // records below count are complete, appends publish them by raising it
+  private volatile int count;
+
+  // only touched by the thread that is forcing
+  private int forced;
+
+  private LogSegment(Path path, long baseId, int capacity, MappedByteBuffer buffer) {
+    this.path = path;
+    this.baseId = baseId;
+    this.capacity = capacity;
+    this.buffer = buffer;
+  }
+
+  static LogSegment create(Path directory, long baseId, int capacity) throws IOException {
+    Path path = directory.resolve(fileName(baseId));
+    LogSegment segment = new LogSegment(path, baseId, capacity, map(path, capacity));
+    segment.buffer.putInt(0, MAGIC);
+    segment.buffer.putInt(4, VERSION);
+    segment.buffer.putLong(8, baseId);
+    segment.buffer.force(0, HEADER_SIZE);
+    return segment;
+  }
+
+  // null for a segment that was being created when the process stopped, it holds no records
+  static LogSegment open(Path path) throws IOException {
+    int capacity = capacity(Files.size(path));
+    MappedByteBuffer buffer = map(path, capacity);
+    if (buffer.getInt(0) == 0 && buffer.getLong(8) == 0) {
+      return null;
+    }
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException(path + " is not a result log segment");
+    }
+
+    LogSegment segment = new LogSegment(path, buffer.getLong(8), capacity, buffer);
+    segment.recover();
+    return segment;
+  }
+
+  // how many records fit a file of the given size, a mapping can't be larger than 2GB
+  static int capacity(long size) {
+    return (int)
+        Math.min(
+            (size - HEADER_SIZE) / RECORD_SIZE, (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+  }
+
+  static boolean isSegment(Path path) {
+    return path.getFileName().toString().endsWith(".log");
+  }
+
+  long getBaseId() {
+    return baseId;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  long nextId() {
+    return baseId + count;
+  }
+
+  boolean isFull() {
+    return count == capacity;
+  }
+
+  // callers append one record at a time
+  void append(LoggedResult record) {
+    int offset = offset(count);
+    ByteBuffer slot = buffer.slice(offset, RECORD_SIZE);
+    int flags = 0;
+
+    slot.putLong(0, record.id());
+    slot.putLong(8, record.generatorId());
+    slot.putLong(16, record.optionId());
+    slot.putLong(24, record.userId());
+    slot.putLong(32, record.dateTime().toEpochSecond(ZoneOffset.UTC));
+    slot.putInt(40, record.dateTime().getNano());
+    if (record.seed() != null) {
+      slot.putLong(48, record.seed());
+      flags |= HAS_SEED;
+    }
+    if (record.counter() != null) {
+      slot.putLong(56, record.counter());
+      flags |= HAS_COUNTER;
+    }
+    if (record.weightSnapshotHash() != null) {
+      slot.put(64, HexFormat.of().parseHex(record.weightSnapshotHash()), 0, HASH_SIZE);
+      flags |= HAS_HASH;
+    }
+    slot.putInt(44, flags);
+    slot.putInt(CHECKSUMMED, checksum(slot));
+
+    count++;
+  }
+
+  LoggedResult read(long id) {
+    long slot = id - baseId;
+    if (slot < 0 || slot >= count) {
+      return null;
+    }
+
+    return decode(buffer.slice(offset((int) slot), RECORD_SIZE));
+  }
+
+  void forEach(Consumer<LoggedResult> consumer) {
+    int end = count;
+    for (int slot = 0; slot < end; slot++) {
+      consumer.accept(decode(buffer.slice(offset(slot), RECORD_SIZE)));
+    }
+  }
+
+  // writes the records appended since the last call to disk
+  void force() {
+    int end = count;
+    if (end > forced) {
+      buffer.force(offset(forced), (end - forced) * RECORD_SIZE);
+      forced = end;
+    }
+  }
+
+  void delete() {
+    try {
+      // the mapping stays valid for readers that still hold it
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void recover() {
+    while (count < capacity && isValid(count)) {
+      count++;
+    }
+
+    // a crash can leave later slots written before earlier ones, those were never acknowledged
+    // and must not come back once the slots before them are filled again
+    for (int slot = count; slot < capacity && buffer.getLong(offset(slot)) != 0; slot++) {
+      buffer.put(offset(slot), new byte[RECORD_SIZE]);
+    }
+    buffer.force();
+    forced = count;
+  }
+
+  private boolean isValid(int slot) {
+    ByteBuffer record = buffer.slice(offset(slot), RECORD_SIZE);
+    return record.getLong(0) == baseId + slot && record.getInt(CHECKSUMMED) == checksum(record);
+  }
+
+  private LoggedResult decode(ByteBuffer slot) {
+    int flags = slot.getInt(44);
+    String hash = null;
+    if ((flags & HAS_HASH) != 0) {
+      byte[] bytes = new byte[HASH_SIZE];
+      slot.get(64, bytes);
+      hash = HexFormat.of().formatHex(bytes);
+    }
+
+    return new LoggedResult(
+        slot.getLong(0),
+        slot.getLong(8),
+        slot.getLong(16),
+        slot.getLong(24),
+        LocalDateTime.ofEpochSecond(slot.getLong(32), slot.getInt(40), ZoneOffset.UTC),
+        (flags & HAS_SEED) != 0 ? slot.getLong(48) : null,
+        (flags & HAS_COUNTER) != 0 ? slot.getLong(56) : null,
+        hash);
+  }
+
+  private static int checksum(ByteBuffer slot) {
+    CRC32C crc = new CRC32C();
+    crc.update(slot.slice(0, CHECKSUMMED));
+    return (int) crc.getValue();
+  }
+
+  private static int offset(int slot) {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+
+  private static String fileName(long baseId) {
+    // zero padded, so the file names sort like the ids
+    return String.format("%020d.log", baseId);
+  }
+
+  private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(capacity));
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package be.mobile.rngenius.result.log;
+
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
+import java.time.LocalDateTime;
+
+// A result as it is kept in the log: ids instead of the option and user it refers to.
+public record LoggedResult(
+    long id,
+    long generatorId,
+    long optionId,
+    long userId,
+    LocalDateTime dateTime,
+    Long seed,
+    Long counter,
+    String weightSnapshotHash)
+    implements ResultHead {
+
+  public static LoggedResult of(Result result) {
+    return new LoggedResult(
+        0,
+        result.getGeneratorId(),
+        result.getOption().id,
+        result.getUser().id,
+        result.getDateTime(),
+        result.getSeed(),
+        result.getCounter(),
+        result.getWeightSnapshotHash());
+  }
+
+  public LoggedResult withId(long id) {
+    return new LoggedResult(
+        id, generatorId, optionId, userId, dateTime, seed, counter, weightSnapshotHash);
+  }
+
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  @Override
+  public Long getOptionId() {
+    return optionId;
+  }
+
+  @Override
+  public Long getGeneratorId() {
+    return generatorId;
+  }
+
+  @Override
+  public LocalDateTime getDateTime() {
+    return dateTime;
+  }
+}
@@ -0,0 +1,324 @@
+package be.mobile.rngenius.result.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// An append-only log of results, split over segment files that are memory-mapped at their full
+// size. Appends only copy into the mapping; making them durable is a separate step in which one
+// waiting thread forces everything appended so far, so concurrent draws share a single flush. Ids
+// start at 1 and grow by one per result. Truncating moves the head forward and drops whole
+// segments below it. The log belongs to one epoch of the database, opening it for another one
+// starts it over.
+public class ResultLog implements Closeable {
+
+  private static final String HEAD_FILE = "head";
+
+  private static final String EPOCH_FILE = "epoch";
+
+  private final Path directory;
+
+  private final int segmentCapacity;
+
+  private final NavigableMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+  private final GeneratorIndex index = new GeneratorIndex();
+
+  // guarded by this, like everything that changes on append
+  private final Set<LogSegment> unforced = new LinkedHashSet<>();
+
+  private LogSegment active;
+
+  private boolean closed;
+
+  private volatile long nextId;
+
+  private volatile long head;
+
+  private final ReentrantLock forceLock = new ReentrantLock();
+
+  private final Condition forcedCondition = forceLock.newCondition();
+
+  // guarded by forceLock
+  private long durableId;
+
+  private boolean forcing;
+
+  public ResultLog(Path directory, int segmentCapacity, String epoch) throws IOException {
+    if (segmentCapacity < 1) {
+      throw new IllegalArgumentException("A segment has to hold at least one result");
+    }
+
+    this.directory = directory;
+    this.segmentCapacity = segmentCapacity;
+
+    Files.createDirectories(directory);
+    Path epochFile = directory.resolve(EPOCH_FILE);
+    if (!Files.exists(epochFile) || !Files.readString(epochFile).equals(epoch)) {
+      // the records refer to options and users of another database, whose ids are handed out again
+      clear();
+      write(EPOCH_FILE, ByteBuffer.wrap(epoch.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    Path headFile = directory.resolve(HEAD_FILE);
+    head = Files.exists(headFile) ? ByteBuffer.wrap(Files.readAllBytes(headFile)).getLong() : 1;
+
+    List<Path> paths;
+    try (Stream<Path> files = Files.list(directory)) {
+      paths = files.filter(LogSegment::isSegment).sorted().toList();
+    }
+    for (Path path : paths) {
+      LogSegment segment = LogSegment.open(path);
+      if (segment == null) {
+        Files.delete(path);
+      } else {
+        segments.put(segment.getBaseId(), segment);
+      }
+    }
+
+    if (segments.isEmpty()) {
+      nextId = head;
+    } else {
+      active = segments.lastEntry().getValue();
+      nextId = Math.max(head, active.nextId());
+      dropSegmentsBefore(head);
+    }
+    durableId = nextId - 1;
+
+    for (LogSegment segment : segments.values()) {
+      segment.forEach(
+          record -> {
+            if (record.id() >= head) {
+              index.add(record.generatorId(), record.id());
+            }
+          });
+    }
+  }
+
+  public static int segmentCapacity(long segmentSize) {
+    return LogSegment.capacity(segmentSize);
+  }
+
+  // returns the id of the first record, the others follow it; they are readable right away but
+  // only survive a crash once awaitDurable returned for them
+  public synchronized long append(List<LoggedResult> records) {
+    if (closed) {
+      throw new IllegalStateException("The result log is closed");
+    }
+
+    long first = nextId;
+    for (LoggedResult record : records) {
+      if (active == null || active.isFull()) {
+        active = createSegment(nextId);
+      }
+      active.append(record.withId(nextId));
+      unforced.add(active);
+      // inside the lock, so the ids of every generator are added in order
+      index.add(record.generatorId(), nextId);
+      nextId++;
+    }
+
+    return first;
+  }
+
+  // the first caller forces for everyone waiting, the others either find their records already
+  // forced or wait for the next round
+  public void awaitDurable(long id) {
+    forceLock.lock();
+    try {
+      while (durableId < id) {
+        if (forcing) {
+          forcedCondition.awaitUninterruptibly();
+          continue;
+        }
+
+        forcing = true;
+        forceLock.unlock();
+        long forcedId = -1;
+        try {
+          forcedId = forceAppended();
+        } finally {
+          forceLock.lock();
+          forcing = false;
+          durableId = Math.max(durableId, forcedId);
+          forcedCondition.signalAll();
+        }
+      }
+    } finally {
+      forceLock.unlock();
+    }
+  }
+
+  public LoggedResult read(long id) {
+    if (id < head || id >= nextId) {
+      return null;
+    }
+
+    Map.Entry<Long, LogSegment> segment = segments.floorEntry(id);
+    return segment == null ? null : segment.getValue().read(id);
+  }
+
+  // newest first, ids of the generator's results between after and before, both exclusive
+  public List<Long> newest(long generatorId, long before, long after, int limit) {
+    return index.newest(generatorId, before, after, limit);
+  }
+
+  // oldest first, ids of the generator's results above after
+  public List<Long> oldestAfter(long generatorId, long after, int limit) {
+    return index.oldestAfter(generatorId, after, limit);
+  }
+
+  public List<LoggedResult> oldest(int limit) {
+    List<LoggedResult> oldest = new ArrayList<>();
+    long end = nextId;
+
+    for (long id = head; id < end && oldest.size() < limit; id++) {
+      LoggedResult record = read(id);
+      if (record != null) {
+        oldest.add(record);
+      } else {
+        // the tail of a segment that was cut short by a crash
+        Long nextBaseId = segments.higherKey(id);
+        if (nextBaseId == null) {
+          break;
+        }
+        id = nextBaseId - 1;
+      }
+    }
+
+    return oldest;
+  }
+
+  // everything below firstId is gone afterwards, also after a restart
+  public synchronized void truncateBefore(long firstId) {
+    firstId = Math.min(firstId, nextId);
+    if (firstId <= head) {
+      return;
+    }
+
+    writeHead(firstId);
+    head = firstId;
+    index.dropBefore(firstId);
+    dropSegmentsBefore(firstId);
+  }
+
+  public long getHead() {
+    return head;
+  }
+
+  public long getNextId() {
+    return nextId;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    awaitDurable(nextId - 1);
+  }
+
+  // returns the last id that is durable now
+  private long forceAppended() {
+    long forcedId;
+    List<LogSegment> forcing;
+    synchronized (this) {
+      forcedId = nextId - 1;
+      forcing = new ArrayList<>(unforced);
+      unforced.clear();
+    }
+
+    try {
+      forcing.forEach(LogSegment::force);
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        unforced.addAll(forcing);
+      }
+      throw e;
+    }
+
+    return forcedId;
+  }
+
+  // a segment can go once the next one starts at or below firstId, the active one always stays
+  private void dropSegmentsBefore(long firstId) {
+    while (segments.size() > 1) {
+      Map.Entry<Long, LogSegment> first = segments.firstEntry();
+      Long nextBaseId = segments.higherKey(first.getKey());
+      if (nextBaseId > firstId) {
+        break;
+      }
+      segments.remove(first.getKey());
+      first.getValue().delete();
+    }
+  }
+
+  private LogSegment createSegment(long baseId) {
+    try {
+      LogSegment segment = LogSegment.create(directory, baseId, segmentCapacity);
+      segments.put(baseId, segment);
+      return segment;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // the epoch is written last, a clear that was cut short is done again on the next start
+  private void clear() throws IOException {
+    List<Path> paths;
+    try (Stream<Path> files = Files.list(directory)) {
+      paths =
+          files
+              .filter(
+                  path ->
+                      LogSegment.isSegment(path) || path.getFileName().toString().equals(HEAD_FILE))
+              .toList();
+    }
+    for (Path path : paths) {
+      Files.delete(path);
+    }
+  }
+
+  private void writeHead(long firstId) {
+    write(HEAD_FILE, ByteBuffer.allocate(Long.BYTES).putLong(0, firstId));
+  }
+
+  private void write(String name, ByteBuffer content) {
+    Path temp = directory.resolve(name + ".tmp");
+    try {
+      try (FileChannel channel =
+          FileChannel.open(
+              temp,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        channel.write(content);
+        channel.force(true);
+      }
+      Files.move(
+          temp,
+          directory.resolve(name),
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
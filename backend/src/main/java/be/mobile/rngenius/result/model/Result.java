@@ -6,11 +6,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity(name = "results")
+@Table(indexes = {@Index(name = "idx_results_generator_id", columnList = "generator_id, id")})
 public class Result {
 
   @Id
@@ -21,6 +24,12 @@ public class Result {
 
   Long generatorId;
 
+  private Long seed;
+
+  private Long counter;
+
+  private String weightSnapshotHash;
+
   @ManyToOne
   @JoinColumn(name = "user_id")
   private User user;
@@ -39,6 +48,18 @@ public class Result {
     return generatorId;
   }
 
+  public Long getSeed() {
+    return seed;
+  }
+
+  public Long getCounter() {
+    return counter;
+  }
+
+  public String getWeightSnapshotHash() {
+    return weightSnapshotHash;
+  }
+
   public User getUser() {
     return user;
   }
@@ -55,6 +76,18 @@ public class Result {
     this.generatorId = generatorId;
   }
 
+  public void setSeed(Long seed) {
+    this.seed = seed;
+  }
+
+  public void setCounter(Long counter) {
+    this.counter = counter;
+  }
+
+  public void setWeightSnapshotHash(String weightSnapshotHash) {
+    this.weightSnapshotHash = weightSnapshotHash;
+  }
+
   public void setUser(User user) {
     this.user = user;
   }
@@ -0,0 +1,15 @@
+package be.mobile.rngenius.result.model;
+
+import java.time.LocalDateTime;
+
+// The columns a result is purged by, without loading its option and user.
+public interface ResultHead {
+
+  Long getId();
+
+  Long getOptionId();
+
+  Long getGeneratorId();
+
+  LocalDateTime getDateTime();
+}
@@ -0,0 +1,19 @@
+package be.mobile.rngenius.result.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+// Stands for the database the result log refers to. A schema update keeps the row and with it the
+// log. A database that is created anew gets another epoch, so a log written against an older one
+// is recognised and not read.
+@Entity(name = "result_log_epochs")
+public class ResultLogEpoch {
+
+  @Id public String id;
+
+  public ResultLogEpoch(String id) {
+    this.id = id;
+  }
+
+  public ResultLogEpoch() {}
+}
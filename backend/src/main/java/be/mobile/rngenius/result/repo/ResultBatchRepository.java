@@ -0,0 +1,9 @@
+package be.mobile.rngenius.result.repo;
+
+import be.mobile.rngenius.result.model.Result;
+import java.util.List;
+
+public interface ResultBatchRepository {
+
+  void insertAllInBatch(List<Result> results);
+}
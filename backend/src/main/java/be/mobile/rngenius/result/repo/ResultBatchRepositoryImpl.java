@@ -0,0 +1,57 @@
+package be.mobile.rngenius.result.repo;
+
+import be.mobile.rngenius.result.model.Result;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+public class ResultBatchRepositoryImpl implements ResultBatchRepository {
+
+  // IDENTITY keys stop Hibernate from batching inserts, so these go straight through JDBC
+  private static final String INSERT_RESULT =
+      "INSERT INTO results"
+          + " (date_time, generator_id, user_id, option_id, seed, counter, weight_snapshot_hash)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  // the ids come back as generated keys, in the order of the batch
+  @Override
+  public void insertAllInBatch(List<Result> results) {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.batchUpdate(
+        connection -> connection.prepareStatement(INSERT_RESULT, new String[] {"id"}),
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement statement, int i) throws SQLException {
+            Result result = results.get(i);
+            statement.setTimestamp(1, Timestamp.valueOf(result.getDateTime()));
+            statement.setLong(2, result.getGeneratorId());
+            statement.setLong(3, result.getUser().id);
+            statement.setLong(4, result.getOption().id);
+            statement.setObject(5, result.getSeed(), Types.BIGINT);
+            statement.setObject(6, result.getCounter(), Types.BIGINT);
+            statement.setString(7, result.getWeightSnapshotHash());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return results.size();
+          }
+        },
+        keyHolder);
+
+    List<Map<String, Object>> keys = keyHolder.getKeyList();
+    for (int i = 0; i < results.size(); i++) {
+      results.get(i).id = ((Number) keys.get(i).values().iterator().next()).longValue();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package be.mobile.rngenius.result.repo;
+
+import be.mobile.rngenius.result.model.ResultLogEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResultLogEpochRepository extends JpaRepository<ResultLogEpoch, String> {}
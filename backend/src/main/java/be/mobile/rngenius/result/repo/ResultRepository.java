@@ -1,12 +1,37 @@
 package be.mobile.rngenius.result.repo;
 
 import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
 import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ResultRepository extends JpaRepository<Result, Long> {
+public interface ResultRepository extends JpaRepository<Result, Long>, ResultBatchRepository {
 
-  List<Result> findResultsByGeneratorId(Long generatorId);
+  // newest first, one page below the given result id
+  @EntityGraph(attributePaths = {"option", "user"})
+  @Query(
+      "SELECT r FROM results r JOIN participants p ON p.generator.id = r.generatorId"
+          + " WHERE p.user.id = ?1 AND p.notifications = true AND r.id < ?2"
+          + " ORDER BY r.id DESC")
+  List<Result> findNotifiedResultsByUserIdBefore(Long userId, long before, Limit limit);
+
+  // oldest first, everything above the given result id up to the limit
+  @EntityGraph(attributePaths = {"option", "user"})
+  @Query(
+      "SELECT r FROM results r JOIN participants p ON p.generator.id = r.generatorId"
+          + " WHERE p.user.id = ?1 AND p.notifications = true AND r.id > ?2"
+          + " ORDER BY r.id ASC")
+  List<Result> findNotifiedResultsByUserIdAfter(Long userId, long after, Limit limit);
+
+  // ids are handed out at insert, only seconds off the draw time, so the oldest results are read
+  // straight off the primary key
+  @Query(
+      "SELECT r.id AS id, r.option.id AS optionId, r.generatorId AS generatorId,"
+          + " r.dateTime AS dateTime FROM results r ORDER BY r.id")
+  List<ResultHead> findOldestResults(Limit limit);
 }
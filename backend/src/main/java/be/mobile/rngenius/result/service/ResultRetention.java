@@ -0,0 +1,86 @@
+package be.mobile.rngenius.result.service;
+
+import be.mobile.rngenius.result.model.ResultHead;
+import be.mobile.rngenius.result.store.ResultStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Results are only kept for a while. Older ones are deleted a batch at a time, so the table and its
+// indexes stay the size of the horizon. The statistics are counted as results are drawn, so nothing
+// is lost with them.
+@Component
+public class ResultRetention {
+
+  private final ResultStore resultStore;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Duration retention;
+
+  private final int batchSize;
+
+  private final int maxBatches;
+
+  private final Counter reclaimed;
+
+  public ResultRetention(
+      ResultStore resultStore,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${rngenius.results.retention:P180D}") Duration retention,
+      @Value("${rngenius.results.purge-batch-size:1000}") int batchSize,
+      @Value("${rngenius.results.purge-max-batches:100}") int maxBatches) {
+    this.resultStore = resultStore;
+    this.transactionTemplate = transactionTemplate;
+    this.retention = retention;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+    this.reclaimed =
+        Counter.builder("rngenius.results.reclaimed")
+            .description("Results deleted by the retention job")
+            .register(meterRegistry);
+  }
+
+  public LocalDateTime horizon() {
+    return LocalDateTime.now().minus(retention);
+  }
+
+  // each batch is its own transaction, a run stops early when the backlog is bigger than maxBatches
+  @Scheduled(fixedDelayString = "${rngenius.results.purge-delay:3600000}")
+  public long purge() {
+    LocalDateTime horizon = horizon();
+    long deleted = 0;
+
+    for (int batch = 0; batch < maxBatches; batch++) {
+      Integer batchDeleted = transactionTemplate.execute(status -> purgeBatch(horizon));
+      deleted += batchDeleted;
+      if (batchDeleted < batchSize) {
+        break;
+      }
+    }
+
+    reclaimed.increment(deleted);
+    return deleted;
+  }
+
+  private int purgeBatch(LocalDateTime horizon) {
+    List<ResultHead> expired =
+        resultStore.findOldest(batchSize).stream()
+            .takeWhile(result -> result.getDateTime().isBefore(horizon))
+            .toList();
+
+    if (expired.isEmpty()) {
+      return 0;
+    }
+
+    resultStore.deleteOldest(expired);
+    return expired.size();
+  }
+}
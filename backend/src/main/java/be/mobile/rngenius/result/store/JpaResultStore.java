@@ -0,0 +1,51 @@
+package be.mobile.rngenius.result.store;
+
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
+import be.mobile.rngenius.result.repo.ResultRepository;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+
+public class JpaResultStore implements ResultStore {
+
+  private final ResultRepository resultRepository;
+
+  public JpaResultStore(ResultRepository resultRepository) {
+    this.resultRepository = resultRepository;
+  }
+
+  @Override
+  public void save(Result result) {
+    resultRepository.save(result);
+  }
+
+  @Override
+  public void saveAll(List<Result> results) {
+    resultRepository.insertAllInBatch(results);
+  }
+
+  @Override
+  public Result findById(Long id) {
+    return resultRepository.findById(id).orElse(null);
+  }
+
+  @Override
+  public List<Result> findNotifiedResultsBefore(Long userId, long before, int limit) {
+    return resultRepository.findNotifiedResultsByUserIdBefore(userId, before, Limit.of(limit));
+  }
+
+  @Override
+  public List<Result> findNotifiedResultsAfter(Long userId, long after, int limit) {
+    return resultRepository.findNotifiedResultsByUserIdAfter(userId, after, Limit.of(limit));
+  }
+
+  @Override
+  public List<ResultHead> findOldest(int limit) {
+    return resultRepository.findOldestResults(Limit.of(limit));
+  }
+
+  @Override
+  public void deleteOldest(List<ResultHead> results) {
+    resultRepository.deleteAllByIdInBatch(results.stream().map(ResultHead::getId).toList());
+  }
+}
@@ -0,0 +1,211 @@
+package be.mobile.rngenius.result.store;
+
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.participant.repo.ParticipantRepository;
+import be.mobile.rngenius.result.log.LoggedResult;
+import be.mobile.rngenius.result.log.ResultLog;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
+import be.mobile.rngenius.user.model.User;
+import be.mobile.rngenius.user.repo.UserRepository;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Results in the append-only log. The log can't roll back, so writes wait for the surrounding
+// transaction to commit; results only get their ids then, before any after-commit listener sees
+// them. A draw returns once its records are forced to disk. Records of deleted options or users
+// are skipped.
+public class LogResultStore implements ResultStore, Closeable {
+
+  private final ResultLog log;
+
+  private final OptionRepository optionRepository;
+
+  private final UserRepository userRepository;
+
+  private final ParticipantRepository participantRepository;
+
+  public LogResultStore(
+      ResultLog log,
+      OptionRepository optionRepository,
+      UserRepository userRepository,
+      ParticipantRepository participantRepository) {
+    this.log = log;
+    this.optionRepository = optionRepository;
+    this.userRepository = userRepository;
+    this.participantRepository = participantRepository;
+  }
+
+  @Override
+  public void save(Result result) {
+    saveAll(List.of(result));
+  }
+
+  @Override
+  public void saveAll(List<Result> results) {
+    if (results.isEmpty()) {
+      return;
+    }
+
+    afterCommit(
+        () -> {
+          long first = log.append(results.stream().map(LoggedResult::of).toList());
+          for (int i = 0; i < results.size(); i++) {
+            results.get(i).id = first + i;
+          }
+          log.awaitDurable(first + results.size() - 1);
+        });
+  }
+
+  @Override
+  public Result findById(Long id) {
+    LoggedResult record = log.read(id);
+    return record == null
+        ? null
+        : resolveRecords(List.of(record)).stream().findFirst().orElse(null);
+  }
+
+  @Override
+  public List<Result> findNotifiedResultsBefore(Long userId, long before, int limit) {
+    List<Long> generatorIds = participantRepository.findNotifiedGeneratorIdsByUserId(userId);
+    List<Result> results = new ArrayList<>();
+    long cursor = before;
+
+    // merges the newest ids of every notified generator, another round fills up what was skipped
+    while (results.size() < limit) {
+      long below = cursor;
+      int missing = limit - results.size();
+      List<Long> ids =
+          generatorIds.stream()
+              .flatMap(generatorId -> log.newest(generatorId, below, 0, missing).stream())
+              .sorted(Comparator.reverseOrder())
+              .limit(missing)
+              .toList();
+
+      if (ids.isEmpty()) {
+        break;
+      }
+
+      results.addAll(resolve(ids));
+      cursor = ids.get(ids.size() - 1);
+    }
+
+    return results;
+  }
+
+  @Override
+  public List<Result> findNotifiedResultsAfter(Long userId, long after, int limit) {
+    List<Long> generatorIds = participantRepository.findNotifiedGeneratorIdsByUserId(userId);
+    List<Result> results = new ArrayList<>();
+    long cursor = after;
+
+    // the same merge the other way up, so the next poll goes on right after the last result
+    while (results.size() < limit) {
+      long above = cursor;
+      int missing = limit - results.size();
+      List<Long> ids =
+          generatorIds.stream()
+              .flatMap(generatorId -> log.oldestAfter(generatorId, above, missing).stream())
+              .sorted()
+              .limit(missing)
+              .toList();
+
+      if (ids.isEmpty()) {
+        break;
+      }
+
+      results.addAll(resolve(ids));
+      cursor = ids.get(ids.size() - 1);
+    }
+
+    return results;
+  }
+
+  @Override
+  public List<ResultHead> findOldest(int limit) {
+    return new ArrayList<>(log.oldest(limit));
+  }
+
+  @Override
+  public void deleteOldest(List<ResultHead> results) {
+    if (!results.isEmpty()) {
+      // once the purge is committed, a failed one leaves them for the next run
+      long firstKept = results.get(results.size() - 1).getId() + 1;
+      afterCommit(() -> log.truncateBefore(firstKept));
+    }
+  }
+
+  @Override
+  public void close() {
+    log.close();
+  }
+
+  private void afterCommit(Runnable write) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      write.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+          }
+
+          @Override
+          public void afterCommit() {
+            write.run();
+          }
+        });
+  }
+
+  private List<Result> resolve(List<Long> ids) {
+    return resolveRecords(ids.stream().map(log::read).filter(Objects::nonNull).toList());
+  }
+
+  private List<Result> resolveRecords(List<LoggedResult> records) {
+    Map<Long, Option> options =
+        optionRepository
+            .findAllById(records.stream().map(LoggedResult::optionId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(option -> option.id, Function.identity()));
+    Map<Long, User> users =
+        userRepository
+            .findAllById(records.stream().map(LoggedResult::userId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(user -> user.id, Function.identity()));
+
+    List<Result> results = new ArrayList<>(records.size());
+    for (LoggedResult record : records) {
+      Option option = options.get(record.optionId());
+      User user = users.get(record.userId());
+      if (option == null || user == null) {
+        continue;
+      }
+
+      Result result = new Result();
+      result.id = record.id();
+      result.setGeneratorId(record.generatorId());
+      result.setOption(option);
+      result.setUser(user);
+      result.setDateTime(record.dateTime());
+      result.setSeed(record.seed());
+      result.setCounter(record.counter());
+      result.setWeightSnapshotHash(record.weightSnapshotHash());
+      results.add(result);
+    }
+
+    return results;
+  }
+}
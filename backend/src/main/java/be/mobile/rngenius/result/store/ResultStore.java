@@ -0,0 +1,31 @@
+package be.mobile.rngenius.result.store;
+
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
+import java.util.List;
+
+// Where drawn results are kept. The paging cursors are result ids, which don't follow the commit
+// order everywhere: the log numbers results as they commit, the database as they are inserted. A
+// draw that commits late can then show up below a cursor that was already handed out, so whoever
+// follows new results has to look back ChangeSequence.COMMIT_WINDOW_MILLIS past its cursor.
+public interface ResultStore {
+
+  // assigns the id, in the log only once the surrounding transaction committed
+  void save(Result result);
+
+  // assigns the ids like save
+  void saveAll(List<Result> results);
+
+  Result findById(Long id);
+
+  // newest first, results of generators the user gets notifications for
+  List<Result> findNotifiedResultsBefore(Long userId, long before, int limit);
+
+  // oldest first, so a page that filled up goes on from its last result
+  List<Result> findNotifiedResultsAfter(Long userId, long after, int limit);
+
+  List<ResultHead> findOldest(int limit);
+
+  // the results have to be the oldest ones, as returned by findOldest
+  void deleteOldest(List<ResultHead> results);
+}
@@ -0,0 +1,54 @@
+package be.mobile.rngenius.result.store;
+
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.participant.repo.ParticipantRepository;
+import be.mobile.rngenius.result.log.ResultLog;
+import be.mobile.rngenius.result.model.ResultLogEpoch;
+import be.mobile.rngenius.result.repo.ResultLogEpochRepository;
+import be.mobile.rngenius.result.repo.ResultRepository;
+import be.mobile.rngenius.user.repo.UserRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class ResultStoreConfig {
+
+  @Bean
+  public ResultStore resultStore(
+      @Value("${rngenius.results.store:jpa}") ResultStoreMode mode,
+      @Value("${rngenius.results.log.directory:data/results-log}") Path directory,
+      @Value("${rngenius.results.log.segment-size:64MB}") DataSize segmentSize,
+      ResultRepository resultRepository,
+      ResultLogEpochRepository resultLogEpochRepository,
+      OptionRepository optionRepository,
+      UserRepository userRepository,
+      ParticipantRepository participantRepository)
+      throws IOException {
+    return switch (mode) {
+      case JPA -> new JpaResultStore(resultRepository);
+      case LOG ->
+          new LogResultStore(
+              new ResultLog(
+                  directory,
+                  ResultLog.segmentCapacity(segmentSize.toBytes()),
+                  epoch(resultLogEpochRepository)),
+              optionRepository,
+              userRepository,
+              participantRepository);
+    };
+  }
+
+  // created along with the database, so a database that is created anew gets another one
+  private String epoch(ResultLogEpochRepository resultLogEpochRepository) {
+    return resultLogEpochRepository.findAll().stream()
+        .findFirst()
+        .orElseGet(
+            () -> resultLogEpochRepository.save(new ResultLogEpoch(UUID.randomUUID().toString())))
+        .id;
+  }
+}
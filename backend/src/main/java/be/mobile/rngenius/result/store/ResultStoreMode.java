@@ -0,0 +1,8 @@
+package be.mobile.rngenius.result.store;
+
+public enum ResultStoreMode {
+  // the results table
+  JPA,
+  // an append-only log of memory-mapped segment files, for when draws are most of the writes
+  LOG
+}
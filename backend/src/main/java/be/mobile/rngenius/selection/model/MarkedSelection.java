@@ -0,0 +1,11 @@
+package be.mobile.rngenius.selection.model;
+
+// A selection that is favorised or excluded, only ever read for the user it belongs to.
+public interface MarkedSelection {
+
+  Long getOptionId();
+
+  boolean getExcluded();
+
+  boolean getFavorised();
+}
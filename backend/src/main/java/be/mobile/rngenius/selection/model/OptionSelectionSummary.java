@@ -0,0 +1,10 @@
+package be.mobile.rngenius.selection.model;
+
+public interface OptionSelectionSummary {
+
+  Long getOptionId();
+
+  boolean getExcluded();
+
+  long getTimesFavorised();
+}
@@ -2,8 +2,11 @@ package be.mobile.rngenius.selection.model;
 
 import be.mobile.rngenius.option.model.Option;
 import be.mobile.rngenius.participant.model.Participant;
+import be.mobile.rngenius.sync.model.ChangeSequenceListener;
+import be.mobile.rngenius.sync.model.Sequenced;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,7 +14,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 
 @Entity(name = "selections")
-public class Selection {
+@EntityListeners(ChangeSequenceListener.class)
+public class Selection implements Sequenced {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +25,8 @@ public class Selection {
 
   boolean excluded;
 
+  private Long changeSeq;
+
   @ManyToOne
   @JoinColumn(name = "participant_id")
   private Participant participant;
@@ -63,4 +69,15 @@ public class Selection {
   public void setOption(Option option) {
     this.option = option;
   }
+
+  @JsonIgnore
+  @Override
+  public Long getChangeSeq() {
+    return changeSeq;
+  }
+
+  @Override
+  public void setChangeSeq(Long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
 }
@@ -1,10 +1,14 @@
 package be.mobile.rngenius.selection.repo;
 
+import be.mobile.rngenius.generator.model.response.SelectionSyncRes;
+import be.mobile.rngenius.selection.model.MarkedSelection;
 import be.mobile.rngenius.selection.model.Selection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface SelectionRepository extends JpaRepository<Selection, Long> {
@@ -17,4 +21,65 @@ public interface SelectionRepository extends JpaRepository<Selection, Long> {
 
   @Query("SELECT s FROM selections s WHERE s.participant.user.id = ?1 AND s.option.id = ?2")
   Selection findSelectionByParticipantUserIdAndOptionId(Long userId, Long optionID);
+
+  @Query(
+      "SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM selections s"
+          + " WHERE s.participant.id = ?1 AND s.favorised = false"
+          + " AND s.option.id IN (SELECT o.id FROM options o JOIN o.categories c WHERE c.id = ?2)")
+  boolean hasUnfavorisedSelectionsByCategoryId(Long participantId, Long categoryId);
+
+  @Query(
+      "SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM selections s"
+          + " WHERE s.participant.id = ?1 AND s.excluded = false"
+          + " AND s.option.id IN (SELECT o.id FROM options o JOIN o.categories c WHERE c.id = ?2)")
+  boolean hasUnexcludedSelectionsByCategoryId(Long participantId, Long categoryId);
+
+  // only applies when the row still has the flags that were read, a concurrent toggle that got
+  // there first leaves it unchanged
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE selections s SET s.favorised = ?4, s.excluded = ?5, s.changeSeq = ?6"
+          + " WHERE s.id = ?1 AND s.favorised = ?2 AND s.excluded = ?3")
+  int updateFlags(
+      Long id,
+      boolean wasFavorised,
+      boolean wasExcluded,
+      boolean favorised,
+      boolean excluded,
+      long changeSeq);
+
+  // favouring and excluding rule each other out, so clearing the other flag is always correct
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE selections s SET s.favorised = ?3, s.excluded = false, s.changeSeq = ?4"
+          + " WHERE s.participant.id = ?1 AND s.favorised <> ?3"
+          + " AND s.option.id IN (SELECT o.id FROM options o JOIN o.categories c WHERE c.id = ?2)")
+  int favoriseSelectionsByCategoryId(
+      Long participantId, Long categoryId, boolean favorised, long changeSeq);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      "UPDATE selections s SET s.excluded = ?3, s.favorised = false, s.changeSeq = ?4"
+          + " WHERE s.participant.id = ?1 AND s.excluded <> ?3"
+          + " AND s.option.id IN (SELECT o.id FROM options o JOIN o.categories c WHERE c.id = ?2)")
+  int excludeSelectionsByCategoryId(
+      Long participantId, Long categoryId, boolean excluded, long changeSeq);
+
+  @Query(
+      "SELECT s.option.id AS optionId, s.excluded AS excluded, s.favorised AS favorised"
+          + " FROM selections s WHERE s.option.generator.id = ?1 AND s.participant.user.id = ?2"
+          + " AND (s.excluded = true OR s.favorised = true)")
+  List<MarkedSelection> findMarkedSelectionsByGeneratorIdAndUserId(Long generatorId, Long userId);
+
+  @Query(
+      "SELECT new be.mobile.rngenius.generator.model.response.SelectionSyncRes("
+          + "s.id, q.id, s.option.id, s.favorised, s.excluded)"
+          + " FROM selections s JOIN s.participant q JOIN q.generator g JOIN g.participants p"
+          + " WHERE p.user.id = ?1 AND (s.changeSeq > ?2 OR p.changeSeq > ?2) ORDER BY s.id")
+  List<SelectionSyncRes> findSelectionsChangedSince(Long userId, long since);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE selections x SET x.changeSeq = 1 WHERE x.changeSeq IS NULL")
+  int initChangeSeqs();
 }
@@ -0,0 +1,55 @@
+package be.mobile.rngenius.stats.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDate;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.type.descriptor.jdbc.LocalDateJdbcType;
+
+@Entity(name = "daily_draws")
+@Table(
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_daily_draws_generator_date",
+            columnNames = {"generator_id", "draw_date"}))
+public class DailyDraws {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  public Long id;
+
+  private Long generatorId;
+
+  // bound as a date as is, going through java.sql.Date would shift it by the default time zone
+  @JdbcType(LocalDateJdbcType.class)
+  private LocalDate drawDate;
+
+  private long drawCount;
+
+  public DailyDraws(Long generatorId, LocalDate drawDate) {
+    this.generatorId = generatorId;
+    this.drawDate = drawDate;
+  }
+
+  public DailyDraws() {}
+
+  public Long getGeneratorId() {
+    return generatorId;
+  }
+
+  public LocalDate getDrawDate() {
+    return drawDate;
+  }
+
+  public long getDrawCount() {
+    return drawCount;
+  }
+
+  public void addDraws(long draws) {
+    drawCount += draws;
+  }
+}
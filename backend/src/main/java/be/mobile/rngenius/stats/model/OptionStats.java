@@ -0,0 +1,64 @@
+package be.mobile.rngenius.stats.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+// Running draw count of one option. Options and generators are referred to by id only, so the
+// counters never get in the way of deleting them; rows of deleted options are cleaned up later.
+@Entity(name = "option_stats")
+@Table(
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_option_stats_option",
+            columnNames = {"option_id"}),
+    indexes = {@Index(name = "idx_option_stats_generator_id", columnList = "generator_id")})
+public class OptionStats {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  public Long id;
+
+  private Long optionId;
+
+  private Long generatorId;
+
+  private long drawCount;
+
+  private LocalDateTime lastDrawnAt;
+
+  public OptionStats(Long optionId, Long generatorId) {
+    this.optionId = optionId;
+    this.generatorId = generatorId;
+  }
+
+  public OptionStats() {}
+
+  public Long getOptionId() {
+    return optionId;
+  }
+
+  public Long getGeneratorId() {
+    return generatorId;
+  }
+
+  public long getDrawCount() {
+    return drawCount;
+  }
+
+  public LocalDateTime getLastDrawnAt() {
+    return lastDrawnAt;
+  }
+
+  public void addDraws(long draws, LocalDateTime drawnAt) {
+    drawCount += draws;
+    if (lastDrawnAt == null || drawnAt.isAfter(lastDrawnAt)) {
+      lastDrawnAt = drawnAt;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package be.mobile.rngenius.stats.repo;
+
+import be.mobile.rngenius.stats.model.DailyDraws;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface DailyDrawsRepository extends JpaRepository<DailyDraws, Long> {
+
+  @Modifying
+  @Query(
+      "UPDATE daily_draws d SET d.drawCount = d.drawCount + ?3"
+          + " WHERE d.generatorId = ?1 AND d.drawDate = ?2")
+  int addDraws(Long generatorId, LocalDate drawDate, long draws);
+
+  @Modifying
+  @Query(
+      "INSERT INTO daily_draws (generatorId, drawDate, drawCount) VALUES (?1, ?2, 0)"
+          + " ON CONFLICT DO NOTHING")
+  int insertIfAbsent(Long generatorId, LocalDate drawDate);
+
+  @Query(
+      "SELECT d FROM daily_draws d WHERE d.generatorId = ?1 AND d.drawDate >= ?2"
+          + " ORDER BY d.drawDate")
+  List<DailyDraws> findDailyDrawsByGeneratorIdSince(Long generatorId, LocalDate since);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "INSERT INTO daily_draws (generatorId, drawDate, drawCount)"
+          + " SELECT r.generatorId, CAST(r.dateTime AS LocalDate), COUNT(r) FROM results r"
+          + " GROUP BY r.generatorId, CAST(r.dateTime AS LocalDate)")
+  int insertDailyDrawsFromResults();
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM daily_draws d WHERE d.generatorId NOT IN (SELECT g.id FROM generators g)")
+  int deleteOrphanedDailyDraws();
+}
@@ -0,0 +1,43 @@
+package be.mobile.rngenius.stats.repo;
+
+import be.mobile.rngenius.stats.model.OptionStats;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OptionStatsRepository extends JpaRepository<OptionStats, Long> {
+
+  List<OptionStats> findOptionStatsByGeneratorId(Long generatorId);
+
+  // an increment rather than a write of the counted total, so concurrent flushes add up
+  @Modifying
+  @Query(
+      "UPDATE option_stats s SET s.drawCount = s.drawCount + ?2,"
+          + " s.lastDrawnAt = CASE WHEN s.lastDrawnAt IS NULL OR s.lastDrawnAt < ?3 THEN ?3"
+          + " ELSE s.lastDrawnAt END WHERE s.optionId = ?1")
+  int addDraws(Long optionId, long draws, LocalDateTime lastDrawnAt);
+
+  @Modifying
+  @Query(
+      "INSERT INTO option_stats (optionId, generatorId, drawCount) VALUES (?1, ?2, 0)"
+          + " ON CONFLICT DO NOTHING")
+  int insertIfAbsent(Long optionId, Long generatorId);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "INSERT INTO option_stats (optionId, generatorId, drawCount, lastDrawnAt)"
+          + " SELECT r.option.id, r.generatorId, COUNT(r), MAX(r.dateTime) FROM results r"
+          + " GROUP BY r.option.id, r.generatorId")
+  int insertOptionStatsFromResults();
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM option_stats s WHERE s.optionId NOT IN (SELECT o.id FROM options o)")
+  int deleteOrphanedOptionStats();
+}
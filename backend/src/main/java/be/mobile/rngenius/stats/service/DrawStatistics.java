@@ -0,0 +1,241 @@
+package be.mobile.rngenius.stats.service;
+
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.response.DailyDrawsRes;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.generator.model.response.OptionStatsRes;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.stats.model.DailyDraws;
+import be.mobile.rngenius.stats.model.OptionStats;
+import be.mobile.rngenius.stats.repo.DailyDrawsRepository;
+import be.mobile.rngenius.stats.repo.OptionStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Counts committed draws in memory and adds them to the stats tables every few seconds, so reading
+// the statistics of a generator never has to scan its results. Counts that are not flushed yet
+// are added when reading.
+@Component
+public class DrawStatistics {
+
+  private final Map<Long, OptionCounter> optionCounters = new ConcurrentHashMap<>();
+
+  private final Map<DayKey, LongAdder> dayCounters = new ConcurrentHashMap<>();
+
+  private final OptionStatsRepository optionStatsRepository;
+
+  private final DailyDrawsRepository dailyDrawsRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  public DrawStatistics(
+      OptionStatsRepository optionStatsRepository,
+      DailyDrawsRepository dailyDrawsRepository,
+      TransactionTemplate transactionTemplate) {
+    this.optionStatsRepository = optionStatsRepository;
+    this.dailyDrawsRepository = dailyDrawsRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  // results drawn before the stats tables existed are counted once
+  @PostConstruct
+  public void backfill() {
+    if (optionStatsRepository.count() == 0 && dailyDrawsRepository.count() == 0) {
+      optionStatsRepository.insertOptionStatsFromResults();
+      dailyDrawsRepository.insertDailyDrawsFromResults();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onResultsDrawn(ResultsDrawnEvent event) {
+    for (Result result : event.results()) {
+      // recorded inside compute, so a flush can't drop the counter between lookup and record
+      optionCounters.compute(
+          result.getOption().id,
+          (id, counter) -> {
+            counter = counter == null ? new OptionCounter(event.generatorId()) : counter;
+            counter.record(result.getDateTime());
+            return counter;
+          });
+      dayCounters
+          .computeIfAbsent(
+              new DayKey(event.generatorId(), result.getDateTime().toLocalDate()),
+              key -> new LongAdder())
+          .increment();
+    }
+  }
+
+  public GeneratorStatsRes getStats(Generator generator, int days) {
+    Map<Long, OptionStats> stored =
+        optionStatsRepository.findOptionStatsByGeneratorId(generator.id).stream()
+            .collect(Collectors.toMap(OptionStats::getOptionId, Function.identity()));
+
+    List<OptionStatsRes> options = new ArrayList<>();
+    long draws = 0;
+
+    for (Option option : generator.getOptions()) {
+      OptionStats optionStats = stored.getOrDefault(option.id, new OptionStats());
+      long optionDraws = optionStats.getDrawCount();
+      LocalDateTime lastDrawnAt = optionStats.getLastDrawnAt();
+
+      OptionCounter pending = optionCounters.get(option.id);
+      if (pending != null && pending.draws.sum() > 0) {
+        optionDraws += pending.draws.sum();
+        LocalDateTime pendingDrawnAt = pending.lastDrawnAt();
+        if (lastDrawnAt == null || pendingDrawnAt.isAfter(lastDrawnAt)) {
+          lastDrawnAt = pendingDrawnAt;
+        }
+      }
+
+      draws += optionDraws;
+      options.add(new OptionStatsRes(option.id, option.getName(), optionDraws, lastDrawnAt));
+    }
+
+    LocalDate since = LocalDate.now().minusDays(days - 1L);
+    Map<LocalDate, Long> drawsPerDay = new TreeMap<>();
+    for (DailyDraws dailyDraws :
+        dailyDrawsRepository.findDailyDrawsByGeneratorIdSince(generator.id, since)) {
+      drawsPerDay.put(dailyDraws.getDrawDate(), dailyDraws.getDrawCount());
+    }
+    dayCounters.forEach(
+        (key, pending) -> {
+          if (key.generatorId().equals(generator.id) && !key.date().isBefore(since)) {
+            drawsPerDay.merge(key.date(), pending.sum(), Long::sum);
+          }
+        });
+
+    List<DailyDrawsRes> drawDays = new ArrayList<>();
+    drawsPerDay.forEach(
+        (date, dayDraws) -> {
+          if (dayDraws > 0) {
+            drawDays.add(new DailyDrawsRes(date, dayDraws));
+          }
+        });
+
+    return new GeneratorStatsRes(generator.id, draws, options, drawDays);
+  }
+
+  @Scheduled(fixedDelayString = "${rngenius.stats.flush-delay:10000}")
+  public void flush() {
+    // the flushed amount is subtracted rather than reset, so draws counted meanwhile are kept
+    List<FlushedOption> flushedOptions = new ArrayList<>();
+    optionCounters.forEach(
+        (optionId, counter) -> {
+          long draws = counter.draws.sum();
+          if (draws > 0) {
+            counter.draws.add(-draws);
+            flushedOptions.add(new FlushedOption(optionId, counter, draws));
+          } else {
+            // flushed before and not drawn since, recounted from zero when it is drawn again
+            optionCounters.computeIfPresent(
+                optionId, (id, current) -> current.draws.sum() == 0 ? null : current);
+          }
+        });
+
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    List<FlushedDay> flushedDays = new ArrayList<>();
+    dayCounters.forEach(
+        (key, counter) -> {
+          long draws = counter.sum();
+          if (draws > 0) {
+            counter.add(-draws);
+            flushedDays.add(new FlushedDay(key, counter, draws));
+          } else if (key.date().isBefore(yesterday)) {
+            // no draw is dated that far back anymore
+            dayCounters.remove(key, counter);
+          }
+        });
+
+    if (flushedOptions.isEmpty() && flushedDays.isEmpty()) {
+      return;
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> store(flushedOptions, flushedDays));
+    } catch (RuntimeException e) {
+      // counted again so the next flush retries them
+      flushedOptions.forEach(flushed -> flushed.counter().draws.add(flushed.draws()));
+      flushedDays.forEach(flushed -> flushed.counter().add(flushed.draws()));
+      throw e;
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${rngenius.stats.cleanup-delay:3600000}")
+  public void deleteOrphans() {
+    optionStatsRepository.deleteOrphanedOptionStats();
+    dailyDrawsRepository.deleteOrphanedDailyDraws();
+  }
+
+  @PreDestroy
+  public void close() {
+    flush();
+  }
+
+  // a row is only created when the increment found none, the insert does nothing when another
+  // flush created it meanwhile
+  private void store(List<FlushedOption> flushedOptions, List<FlushedDay> flushedDays) {
+    for (FlushedOption flushed : flushedOptions) {
+      Long optionId = flushed.optionId();
+      LocalDateTime lastDrawnAt = flushed.counter().lastDrawnAt();
+      if (optionStatsRepository.addDraws(optionId, flushed.draws(), lastDrawnAt) == 0) {
+        optionStatsRepository.insertIfAbsent(optionId, flushed.counter().generatorId);
+        optionStatsRepository.addDraws(optionId, flushed.draws(), lastDrawnAt);
+      }
+    }
+
+    for (FlushedDay flushed : flushedDays) {
+      DayKey key = flushed.key();
+      if (dailyDrawsRepository.addDraws(key.generatorId(), key.date(), flushed.draws()) == 0) {
+        dailyDrawsRepository.insertIfAbsent(key.generatorId(), key.date());
+        dailyDrawsRepository.addDraws(key.generatorId(), key.date(), flushed.draws());
+      }
+    }
+  }
+
+  private static class OptionCounter {
+
+    private final Long generatorId;
+
+    private final LongAdder draws = new LongAdder();
+
+    private final LongAccumulator lastDrawnAt = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    private OptionCounter(Long generatorId) {
+      this.generatorId = generatorId;
+    }
+
+    private void record(LocalDateTime drawnAt) {
+      lastDrawnAt.accumulate(drawnAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+      draws.increment();
+    }
+
+    private LocalDateTime lastDrawnAt() {
+      return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastDrawnAt.get()), ZoneOffset.UTC);
+    }
+  }
+
+  private record DayKey(Long generatorId, LocalDate date) {}
+
+  private record FlushedOption(Long optionId, OptionCounter counter, long draws) {}
+
+  private record FlushedDay(DayKey key, LongAdder counter, long draws) {}
+}
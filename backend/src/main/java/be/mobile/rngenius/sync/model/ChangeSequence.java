@@ -0,0 +1,31 @@
+package be.mobile.rngenius.sync.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out strictly increasing change sequence numbers. They are microseconds since the epoch,
+// bumped by one when two changes land in the same microsecond, so they keep increasing across
+// restarts and can be compared with points in time.
+public final class ChangeSequence {
+
+  // a change is stamped when it is flushed, which can be a while before its transaction commits
+  public static final long COMMIT_WINDOW_MILLIS = 10_000;
+
+  private static final AtomicLong last = new AtomicLong();
+
+  private ChangeSequence() {}
+
+  public static long next() {
+    long now = at(Instant.now());
+    return last.updateAndGet(previous -> Math.max(previous + 1, now));
+  }
+
+  public static long at(Instant instant) {
+    return Math.multiplyExact(instant.getEpochSecond(), 1_000_000L) + instant.getNano() / 1_000;
+  }
+
+  // every change stamped before this is committed by now, so clients can safely resume from it
+  public static long watermark() {
+    return at(Instant.now().minusMillis(COMMIT_WINDOW_MILLIS));
+  }
+}
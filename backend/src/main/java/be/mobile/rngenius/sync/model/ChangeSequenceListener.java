@@ -0,0 +1,13 @@
+package be.mobile.rngenius.sync.model;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+public class ChangeSequenceListener {
+
+  @PrePersist
+  @PreUpdate
+  public void stamp(Sequenced entity) {
+    entity.setChangeSeq(ChangeSequence.next());
+  }
+}
@@ -0,0 +1,8 @@
+package be.mobile.rngenius.sync.model;
+
+public interface Sequenced {
+
+  Long getChangeSeq();
+
+  void setChangeSeq(Long changeSeq);
+}
@@ -0,0 +1,72 @@
+package be.mobile.rngenius.sync.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Tells one user that something they could see was deleted. Children go with their parent, so
+// a generator tombstone also covers its options, participants and selections.
+@Entity(name = "tombstones")
+@Table(indexes = {@Index(name = "idx_tombstones_user_seq", columnList = "user_id, change_seq")})
+@EntityListeners(ChangeSequenceListener.class)
+public class Tombstone implements Sequenced {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  public Long id;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  private TombstoneType type;
+
+  private Long entityId;
+
+  private Long changeSeq;
+
+  public Tombstone(Long userId, TombstoneType type, Long entityId) {
+    this.userId = userId;
+    this.type = type;
+    this.entityId = entityId;
+  }
+
+  public Tombstone() {}
+
+  @JsonIgnore
+  public Long getId() {
+    return id;
+  }
+
+  @JsonIgnore
+  public Long getUserId() {
+    return userId;
+  }
+
+  public TombstoneType getType() {
+    return type;
+  }
+
+  public Long getEntityId() {
+    return entityId;
+  }
+
+  @JsonIgnore
+  @Override
+  public Long getChangeSeq() {
+    return changeSeq;
+  }
+
+  @Override
+  public void setChangeSeq(Long changeSeq) {
+    this.changeSeq = changeSeq;
+  }
+}
@@ -0,0 +1,7 @@
+package be.mobile.rngenius.sync.model;
+
+public enum TombstoneType {
+  GENERATOR,
+  OPTION,
+  PARTICIPANT
+}
@@ -0,0 +1,30 @@
+package be.mobile.rngenius.sync.repo;
+
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.participant.repo.ParticipantRepository;
+import be.mobile.rngenius.selection.repo.SelectionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Stamps rows created before change sequences existed, so the first sync picks them up.
+@Component
+public class InitChangeSequences {
+
+  @Autowired private GeneratorRepository generatorRepository;
+
+  @Autowired private OptionRepository optionRepository;
+
+  @Autowired private ParticipantRepository participantRepository;
+
+  @Autowired private SelectionRepository selectionRepository;
+
+  @PostConstruct
+  public void stampUnsequencedRows() {
+    generatorRepository.initChangeSeqs();
+    optionRepository.initChangeSeqs();
+    participantRepository.initChangeSeqs();
+    selectionRepository.initChangeSeqs();
+  }
+}
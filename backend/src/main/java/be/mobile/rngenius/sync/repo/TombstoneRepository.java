@@ -0,0 +1,21 @@
+package be.mobile.rngenius.sync.repo;
+
+import be.mobile.rngenius.sync.model.Tombstone;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+  @Query("SELECT t FROM tombstones t WHERE t.userId = ?1 AND t.changeSeq > ?2 ORDER BY t.changeSeq")
+  List<Tombstone> findTombstonesByUserIdChangedSince(Long userId, long since);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM tombstones t WHERE t.changeSeq < ?1")
+  int deleteTombstonesBefore(long changeSeq);
+}
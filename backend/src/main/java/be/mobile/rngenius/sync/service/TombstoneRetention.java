@@ -0,0 +1,35 @@
+package be.mobile.rngenius.sync.service;
+
+import be.mobile.rngenius.sync.model.ChangeSequence;
+import be.mobile.rngenius.sync.repo.TombstoneRepository;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Tombstones are only kept for a while. Clients that last synced before the horizon can't be
+// told about every deletion anymore and get a full sync instead.
+@Component
+public class TombstoneRetention {
+
+  private final TombstoneRepository tombstoneRepository;
+
+  private final Duration retention;
+
+  public TombstoneRetention(
+      TombstoneRepository tombstoneRepository,
+      @Value("${rngenius.sync.tombstone-retention:P30D}") Duration retention) {
+    this.tombstoneRepository = tombstoneRepository;
+    this.retention = retention;
+  }
+
+  public long horizon() {
+    return ChangeSequence.at(Instant.now().minus(retention));
+  }
+
+  @Scheduled(fixedDelayString = "${rngenius.sync.purge-delay:3600000}")
+  public void purge() {
+    tombstoneRepository.deleteTombstonesBefore(horizon());
+  }
+}
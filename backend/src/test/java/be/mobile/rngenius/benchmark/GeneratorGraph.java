@@ -0,0 +1,138 @@
+package be.mobile.rngenius.benchmark;
+
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.participant.model.Participant;
+import be.mobile.rngenius.selection.model.Selection;
+import be.mobile.rngenius.user.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+// A fully populated generator as the service and Jackson see it: every participant has a selection
+// for every option, and the given percentage of those selections is a favourite.
+@State(Scope.Benchmark)
+public class GeneratorGraph {
+
+  public static final int GENERATORS = 50;
+
+  @Param({"10", "100", "1000"})
+  public int options;
+
+  @Param({"2", "10", "50"})
+  public int participants;
+
+  @Param({"0", "25"})
+  public int favourites;
+
+  public Generator generator;
+
+  public User requester;
+
+  // the requester takes part in every other one of these
+  public List<Generator> generators;
+
+  // the requester's generators, as full entities and as the list summaries
+  public List<Generator> myGenerators;
+
+  public List<GeneratorSummary> mySummaries;
+
+  @Setup
+  public void setUp() throws Exception {
+    SplittableRandom random = new SplittableRandom(42);
+
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < participants; i++) {
+      User user = new User("First" + i, "Last" + i, "user" + i + "@rngenius.be", "Passw0rd!");
+      user.id = (long) i + 1;
+      users.add(user);
+    }
+    requester = users.get(0);
+
+    generator = createGenerator(1L, users, random);
+
+    generators = new ArrayList<>(GENERATORS);
+    for (int i = 0; i < GENERATORS; i++) {
+      List<User> members = i % 2 == 0 ? users : users.subList(1, users.size());
+      generators.add(createGenerator(i + 2L, members.isEmpty() ? users : members, random));
+    }
+
+    myGenerators = generators.stream().filter(g -> g.id % 2 == 0).toList();
+    ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    mySummaries =
+        myGenerators.stream()
+            .map(
+                g ->
+                    projectionFactory.createProjection(
+                        GeneratorSummary.class,
+                        Map.of(
+                            "id",
+                            g.id,
+                            "title",
+                            g.getTitle(),
+                            "iconNumber",
+                            g.getIconNumber(),
+                            "ownerName",
+                            g.getUser().getFirstName() + " " + g.getUser().getLastName(),
+                            "optionCount",
+                            (long) g.getOptions().size(),
+                            "participantCount",
+                            (long) g.getParticipants().size(),
+                            "notifications",
+                            false)))
+            .toList();
+  }
+
+  private Generator createGenerator(Long id, List<User> users, SplittableRandom random) {
+    Generator generator = new Generator("Generator " + id, 1);
+    generator.id = id;
+    generator.setUser(users.get(0));
+
+    List<Option> optionList = new ArrayList<>(options);
+    for (int i = 0; i < options; i++) {
+      Option option =
+          new Option(
+              "Option " + i,
+              new ArrayList<>(List.of("Category " + i % 7, "Category " + i % 3)),
+              "Description of option " + i);
+      option.id = id * 100_000 + i;
+      option.setGenerator(generator);
+      option.setSelections(new ArrayList<>());
+      optionList.add(option);
+    }
+
+    List<Participant> participantList = new ArrayList<>(users.size());
+    for (User user : users) {
+      Participant participant = new Participant();
+      participant.setUser(user);
+      participant.setGenerator(generator);
+
+      List<Selection> selections = new ArrayList<>(options);
+      for (Option option : optionList) {
+        Selection selection = new Selection();
+        selection.setParticipant(participant);
+        selection.setOption(option);
+        if (random.nextInt(100) < favourites) {
+          selection.setFavorised(true);
+          option.setFavouriteCount(option.getFavouriteCount() + 1);
+        }
+        option.getSelections().add(selection);
+        selections.add(selection);
+      }
+      participant.setSelections(selections);
+      participantList.add(participant);
+    }
+
+    generator.setOptions(optionList);
+    generator.setParticipants(participantList);
+    return generator;
+  }
+}
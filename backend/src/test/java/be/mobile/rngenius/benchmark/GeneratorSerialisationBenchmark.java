@@ -0,0 +1,48 @@
+package be.mobile.rngenius.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Jackson serialisation of a fully populated Generator, as returned by /generator/{id}, and of the
+// generator list as full entities versus the summaries /generator/myGenerators returns.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorSerialisationBenchmark {
+
+  private ObjectMapper objectMapper;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  @Benchmark
+  public byte[] serialiseGenerator(GeneratorGraph graph) throws Exception {
+    return objectMapper.writeValueAsBytes(graph.generator);
+  }
+
+  @Benchmark
+  public byte[] serialiseMyGenerators(GeneratorGraph graph) throws Exception {
+    return objectMapper.writeValueAsBytes(graph.myGenerators);
+  }
+
+  @Benchmark
+  public byte[] serialiseMyGeneratorSummaries(GeneratorGraph graph) throws Exception {
+    return objectMapper.writeValueAsBytes(graph.mySummaries);
+  }
+}
@@ -0,0 +1,103 @@
+package be.mobile.rngenius.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.generator.random.RandomMode;
+import be.mobile.rngenius.generator.random.RandomSourceConfig;
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.sampler.SamplerCache;
+import be.mobile.rngenius.generator.service.GeneratorService;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.result.store.ResultStore;
+import be.mobile.rngenius.user.service.UserService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// GeneratorService hot paths against in-memory repositories. The stub-only mocks add a constant
+// few hundred nanoseconds per repository call, so compare runs with each other, not with zero.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorServiceBenchmark {
+
+  private GeneratorService generatorService;
+
+  private SamplerCache samplerCache;
+
+  private Generator generator;
+
+  private Long requesterId;
+
+  @Setup
+  public void setUp(GeneratorGraph graph) throws Exception {
+    generator = graph.generator;
+    requesterId = graph.requester.id;
+
+    GeneratorRepository generatorRepository = stub(GeneratorRepository.class);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(generatorRepository.findGeneratorSummariesByParticipantUserId(requesterId))
+        .thenReturn(graph.mySummaries);
+    OptionRepository optionRepository = stub(OptionRepository.class);
+    when(optionRepository.findOptionsWithCategoriesByGeneratorId(generator.id))
+        .thenReturn(generator.getOptions());
+    UserService userService = stub(UserService.class);
+    when(userService.getUserById(requesterId)).thenReturn(graph.requester);
+
+    samplerCache = new SamplerCache();
+    generatorService = new GeneratorService();
+    ReflectionTestUtils.setField(generatorService, "generatorRepository", generatorRepository);
+    ReflectionTestUtils.setField(generatorService, "optionRepository", optionRepository);
+    ReflectionTestUtils.setField(generatorService, "userService", userService);
+    ReflectionTestUtils.setField(generatorService, "resultStore", stub(ResultStore.class));
+    ReflectionTestUtils.setField(generatorService, "samplerCache", samplerCache);
+    // nobody listens here, draws still publish their results
+    ReflectionTestUtils.setField(
+        generatorService, "eventPublisher", (ApplicationEventPublisher) event -> {});
+    ReflectionTestUtils.setField(
+        generatorService,
+        "randomSource",
+        RandomSourceConfig.create(RandomMode.FAST, "L64X128MixRandom", 0));
+  }
+
+  // weight building and sampling, as on the first draw after a change
+  @Benchmark
+  public Option generateOptionUncached() throws Exception {
+    samplerCache.invalidate(generator.id);
+    return generatorService.generateOption(generator.id, requesterId);
+  }
+
+  @Benchmark
+  public Option generateOptionCached() throws Exception {
+    return generatorService.generateOption(generator.id, requesterId);
+  }
+
+  @Benchmark
+  public List<GeneratorSummary> getMyGenerators() {
+    return generatorService.getMyGenerators(requesterId);
+  }
+
+  private static <T> T stub(Class<T> type) {
+    // stub-only mocks do not record invocations, so they don't fill the heap during a run
+    return mock(type, withSettings().stubOnly());
+  }
+}
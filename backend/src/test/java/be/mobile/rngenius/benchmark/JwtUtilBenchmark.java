@@ -0,0 +1,48 @@
+package be.mobile.rngenius.benchmark;
+
+import be.mobile.rngenius.auth.jwt.JwtUtil;
+import be.mobile.rngenius.user.model.User;
+import io.jsonwebtoken.Claims;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Token parsing as done by the authorization filter and every controller method.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+  private JwtUtil jwtUtil;
+
+  private String token;
+
+  @Setup
+  public void setUp() throws Exception {
+    User user = new User("John", "Doe", "john.doe@rngenius.be", "Passw0rd!");
+    user.id = 1L;
+    jwtUtil = new JwtUtil();
+    token = jwtUtil.createToken(user);
+  }
+
+  @Benchmark
+  public Claims parseJwtClaims() {
+    return jwtUtil.parseJwtClaims(token);
+  }
+
+  @Benchmark
+  public long retrieveRequesterId() {
+    return jwtUtil.retrieveRequesterId("Bearer " + token);
+  }
+}
@@ -0,0 +1,71 @@
+package be.mobile.rngenius.benchmark;
+
+import be.mobile.rngenius.generator.random.RandomMode;
+import be.mobile.rngenius.generator.random.RandomSource;
+import be.mobile.rngenius.generator.random.RandomSourceConfig;
+import be.mobile.rngenius.generator.sampler.AliasTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Draw throughput per random mode at 1, 8 and 32 threads, run with:
+// mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//     -Dexec.args="-cp %classpath be.mobile.rngenius.benchmark.RandomSourceBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+  @Param({"FAST", "SECURE", "SEEDED"})
+  public RandomMode mode;
+
+  private RandomSource randomSource;
+
+  private AliasTable<Integer> sampler;
+
+  @Setup
+  public void setUp() {
+    randomSource = RandomSourceConfig.create(mode, "L64X128MixRandom", 42);
+
+    List<Integer> options = new ArrayList<>();
+    long[] weights = new long[200];
+    for (int i = 0; i < weights.length; i++) {
+      options.add(i);
+      weights[i] = 1 + i % 5;
+    }
+    sampler = new AliasTable<>(options, weights);
+  }
+
+  @Benchmark
+  public Integer draw() {
+    return sampler.sample(randomSource.current());
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (int threads : new int[] {1, 8, 32}) {
+      Options options =
+          new OptionsBuilder()
+              .include(RandomSourceBenchmark.class.getSimpleName())
+              .threads(threads)
+              .build();
+      new Runner(options).run();
+    }
+  }
+}
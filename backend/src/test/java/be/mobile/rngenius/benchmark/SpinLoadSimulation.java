@@ -0,0 +1,146 @@
+package be.mobile.rngenius.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Opens many simulated clients on the spin socket of a generator of a locally running backend,
+// triggers spins over REST and reports how long the broadcast took to reach every client.
+//
+// mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=be.mobile.rngenius.benchmark.SpinLoadSimulation
+//   -Dexec.args="http://localhost:8080 <access token> <generator id> [clients] [spins]"
+public class SpinLoadSimulation {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 3) {
+      System.err.println(
+          "Usage: SpinLoadSimulation <base url> <token> <generator id> [clients] [spins]");
+      System.exit(1);
+    }
+
+    String baseUrl = args[0];
+    String authorization = "Bearer " + args[1];
+    long generatorId = Long.parseLong(args[2]);
+    int clients = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+    int spins = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+    HttpClient httpClient = HttpClient.newHttpClient();
+    URI socketUri =
+        URI.create(baseUrl.replaceFirst("^http", "ws") + "/generator/" + generatorId + "/spins");
+
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    CountDownLatch[] received = new CountDownLatch[spins];
+    for (int i = 0; i < spins; i++) {
+      received[i] = new CountDownLatch(clients);
+    }
+
+    long connectStart = System.nanoTime();
+    List<CompletableFuture<WebSocket>> connecting = new ArrayList<>(clients);
+    for (int i = 0; i < clients; i++) {
+      connecting.add(
+          httpClient
+              .newWebSocketBuilder()
+              .header("Authorization", authorization)
+              .buildAsync(socketUri, new SpinListener(latencies, received)));
+    }
+    List<WebSocket> sockets = connecting.stream().map(CompletableFuture::join).toList();
+    System.out.printf(
+        "Connected %d clients in %d ms%n",
+        clients, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+    HttpRequest generate =
+        HttpRequest.newBuilder(URI.create(baseUrl + "/generator/generate/" + generatorId))
+            .header("Authorization", authorization)
+            .build();
+
+    for (int i = 0; i < spins; i++) {
+      long spinStart = System.nanoTime();
+      HttpResponse<Void> response =
+          httpClient.send(generate, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException("Spin failed with status " + response.statusCode());
+      }
+
+      boolean complete = received[i].await(30, TimeUnit.SECONDS);
+      System.out.printf(
+          "Spin %d reached %d/%d clients in %d ms%n",
+          i + 1,
+          clients - received[i].getCount(),
+          clients,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - spinStart));
+      if (!complete) {
+        break;
+      }
+    }
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    if (sorted.length > 0) {
+      System.out.printf(
+          "Commit to client latency over %d messages: p50 %d ms, p99 %d ms, max %d ms%n",
+          sorted.length,
+          percentile(sorted, 0.50),
+          percentile(sorted, 0.99),
+          sorted[sorted.length - 1]);
+    }
+
+    sockets.forEach(socket -> socket.sendClose(WebSocket.NORMAL_CLOSURE, "done"));
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))];
+  }
+
+  private static class SpinListener implements WebSocket.Listener {
+
+    private final ConcurrentLinkedQueue<Long> latencies;
+
+    private final CountDownLatch[] received;
+
+    private final StringBuilder message = new StringBuilder();
+
+    private int spins;
+
+    SpinListener(ConcurrentLinkedQueue<Long> latencies, CountDownLatch[] received) {
+      this.latencies = latencies;
+      this.received = received;
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+      message.append(data);
+      if (last) {
+        onMessage(message.toString());
+        message.setLength(0);
+      }
+      webSocket.request(1);
+      return null;
+    }
+
+    private void onMessage(String payload) {
+      try {
+        JsonNode spin = objectMapper.readTree(payload);
+        if ("SPIN".equals(spin.path("type").asText()) && spins < received.length) {
+          // client and server share a clock here, so no PING/PONG offset is needed
+          latencies.add(System.currentTimeMillis() - spin.path("serverTime").asLong());
+          received[spins++].countDown();
+        }
+      } catch (Exception e) {
+        System.err.println("Unreadable message: " + e.getMessage());
+      }
+    }
+  }
+}
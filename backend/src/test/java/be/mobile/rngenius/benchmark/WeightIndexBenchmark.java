@@ -0,0 +1,92 @@
+package be.mobile.rngenius.benchmark;
+
+import be.mobile.rngenius.generator.sampler.AliasTable;
+import be.mobile.rngenius.generator.sampler.FenwickTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One selection toggle followed by one draw, as the list expansion the service used to do, as an
+// alias table rebuild and as a Fenwick point update, run with:
+// mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//     -Dexec.args="-cp %classpath org.openjdk.jmh.Main WeightIndexBenchmark"
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightIndexBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int options;
+
+  private List<Integer> items;
+
+  private long[] weights;
+
+  private FenwickTree fenwickTree;
+
+  private SplittableRandom random;
+
+  private int toggled;
+
+  @Setup
+  public void setUp() {
+    random = new SplittableRandom(42);
+    items = new ArrayList<>(options);
+    weights = new long[options];
+    for (int i = 0; i < options; i++) {
+      items.add(i);
+      weights[i] = 1 + i % 4;
+    }
+    fenwickTree = new FenwickTree(weights);
+  }
+
+  @Benchmark
+  public Integer listExpansion() {
+    int option = toggle();
+
+    List<Integer> expanded = new ArrayList<>();
+    for (int i = 0; i < options; i++) {
+      for (long ticket = 0; ticket < weights[i]; ticket++) {
+        expanded.add(items.get(i));
+      }
+    }
+    return option + expanded.get(random.nextInt(expanded.size()));
+  }
+
+  @Benchmark
+  public Integer aliasTableRebuild() {
+    int option = toggle();
+
+    return option + new AliasTable<>(items, weights).sample(random);
+  }
+
+  @Benchmark
+  public Integer fenwickTree() {
+    int option = toggle();
+    fenwickTree.set(option, weights[option]);
+
+    return option + items.get(fenwickTree.find(random.nextLong(fenwickTree.total())));
+  }
+
+  // flips an even option between excluded and favourited by one participant, odd ones never change
+  private int toggle() {
+    toggled = (toggled + 2) % options;
+    weights[toggled] = weights[toggled] == 0 ? 2 : 0;
+    return toggled;
+  }
+}
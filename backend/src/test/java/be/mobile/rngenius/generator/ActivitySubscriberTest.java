@@ -0,0 +1,131 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import be.mobile.rngenius.generator.stream.ActivitySubscriber;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivitySubscriberTest {
+
+  @Mock private SseEmitter emitter;
+
+  private List<Runnable> tasks;
+
+  private ActivitySubscriber subscriber;
+
+  @BeforeEach
+  public void setUp() {
+    tasks = new ArrayList<>();
+    subscriber = new ActivitySubscriber(emitter, 2, tasks::add);
+  }
+
+  @Test
+  void givenQueuedActivities_whenDraining_thenAllAreSentInOrder() throws Exception {
+    // given
+    subscriber.offer(new GeneratorActivity(ActivityType.OPTION_ADDED, 1L, 5L));
+    subscriber.offer(new GeneratorActivity(ActivityType.RESULT, 1L, 9L));
+
+    // when
+    tasks.forEach(Runnable::run);
+
+    // then
+    assertEquals(List.of("OPTION_ADDED", "RESULT"), sentEventNames(2));
+  }
+
+  @Test
+  void givenFullQueue_whenOffering_thenQueueIsReplacedByResync() throws Exception {
+    // given
+    subscriber.offer(new GeneratorActivity(ActivityType.OPTION_ADDED, 1L, 5L));
+    subscriber.offer(new GeneratorActivity(ActivityType.OPTION_ADDED, 1L, 6L));
+
+    // when
+    subscriber.offer(new GeneratorActivity(ActivityType.OPTION_ADDED, 1L, 7L));
+    tasks.forEach(Runnable::run);
+
+    // then
+    assertEquals(1, tasks.size());
+    assertEquals(List.of("RESYNC"), sentEventNames(1));
+  }
+
+  @Test
+  void givenBrokenConnection_whenDraining_thenSubscriberIsClosed() throws Exception {
+    // given
+    doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+    subscriber.offer(new GeneratorActivity(ActivityType.RESULT, 1L, 9L));
+
+    // when
+    tasks.forEach(Runnable::run);
+
+    // then
+    assertTrue(subscriber.isClosed());
+    verify(emitter, times(1)).completeWithError(any(IOException.class));
+  }
+
+  @Test
+  void givenStuckSend_whenPastTheTimeLimit_thenSubscriberIsAbortedOnceTheSendReturns()
+      throws Exception {
+    // given
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch stuck = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              sending.countDown();
+              stuck.await();
+              return null;
+            })
+        .when(emitter)
+        .send(any(SseEventBuilder.class));
+    subscriber.offer(new GeneratorActivity(ActivityType.RESULT, 1L, 9L));
+    Thread drain = new Thread(tasks.get(0));
+    drain.start();
+    sending.await();
+    CountDownLatch returned = new CountDownLatch(1);
+
+    // when
+    boolean aborted = subscriber.abortIfStalled(0, returned::countDown);
+
+    // then
+    assertTrue(aborted);
+    assertTrue(subscriber.isClosed());
+    verify(emitter, never()).completeWithError(any());
+    stuck.countDown();
+    assertTrue(returned.await(1, TimeUnit.SECONDS));
+    verify(emitter, times(1)).completeWithError(any(IOException.class));
+  }
+
+  @Test
+  void givenIdleSubscriber_whenCheckingForStall_thenItIsKept() {
+    // when
+    boolean aborted = subscriber.abortIfStalled(0, () -> {});
+
+    // then
+    assertFalse(aborted);
+    assertFalse(subscriber.isClosed());
+  }
+
+  private List<String> sentEventNames(int count) throws IOException {
+    ArgumentCaptor<SseEventBuilder> events = ArgumentCaptor.forClass(SseEventBuilder.class);
+    verify(emitter, times(count)).send(events.capture());
+    return events.getAllValues().stream()
+        .map(event -> event.build().iterator().next().getData().toString())
+        .map(line -> line.substring("event:".length(), line.indexOf('\n')))
+        .toList();
+  }
+}
@@ -0,0 +1,67 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.sampler.AliasTable;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class AliasTableTest {
+
+  @Test
+  void givenWeights_whenSampling_thenFrequenciesFollowWeights() {
+    // given
+    AliasTable<String> table = new AliasTable<>(List.of("a", "b", "c"), new long[] {1, 2, 5});
+    SplittableRandom random = new SplittableRandom(42);
+    int draws = 80_000;
+    int[] counts = new int[3];
+
+    // when
+    for (int i = 0; i < draws; i++) {
+      counts[table.sample(random).charAt(0) - 'a']++;
+    }
+
+    // then
+    assertEquals(0.125, counts[0] / (double) draws, 0.01);
+    assertEquals(0.25, counts[1] / (double) draws, 0.01);
+    assertEquals(0.625, counts[2] / (double) draws, 0.01);
+  }
+
+  @Test
+  void givenZeroWeight_whenSampling_thenItemIsNeverReturned() {
+    // given
+    AliasTable<String> table = new AliasTable<>(List.of("a", "b"), new long[] {0, 3});
+    SplittableRandom random = new SplittableRandom(7);
+
+    // when
+    // then
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals("b", table.sample(random));
+    }
+  }
+
+  @Test
+  void givenOnlyZeroWeights_whenBuildingTable_thenIllegalArgumentExceptionIsThrown() {
+    // when
+    IllegalArgumentException ex =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new AliasTable<>(List.of("a", "b"), new long[] {0, 0}));
+
+    // then
+    assertEquals("At least one weight has to be positive", ex.getMessage());
+  }
+
+  @Test
+  void givenMismatchingWeights_whenBuildingTable_thenIllegalArgumentExceptionIsThrown() {
+    // when
+    IllegalArgumentException ex =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new AliasTable<>(List.of("a", "b"), new long[] {1}));
+
+    // then
+    assertEquals("Every item needs exactly one weight", ex.getMessage());
+  }
+}
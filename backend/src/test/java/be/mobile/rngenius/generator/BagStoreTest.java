@@ -0,0 +1,218 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.model.GeneratorBag;
+import be.mobile.rngenius.generator.repo.GeneratorBagRepository;
+import be.mobile.rngenius.generator.sampler.BagStore;
+import be.mobile.rngenius.generator.sampler.DrawBag;
+import be.mobile.rngenius.generator.sampler.OptionSampler;
+import be.mobile.rngenius.option.model.Option;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class BagStoreTest {
+
+  @Mock private GeneratorBagRepository generatorBagRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private BagStore bagStore;
+
+  private List<Option> options;
+
+  private SplittableRandom random;
+
+  @BeforeEach
+  public void setUp() {
+    bagStore = new BagStore(generatorBagRepository, transactionManager);
+    random = new SplittableRandom(42);
+    options = new ArrayList<>();
+    for (long id = 1; id <= 5; id++) {
+      Option option = new Option("Option " + id, List.of("Category"), "Description");
+      option.id = id;
+      options.add(option);
+    }
+  }
+
+  @Test
+  void givenEmptyBag_whenDrawingEveryOption_thenNoOptionRepeatsUntilBagIsEmpty() {
+    // given
+    when(generatorBagRepository.findById(1L)).thenReturn(Optional.empty());
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1, 1, 5});
+    Set<Long> drawn = new HashSet<>();
+
+    // when
+    for (int i = 0; i < options.size(); i++) {
+      drawn.add(bagStore.next(1L, sampler, random).id);
+    }
+
+    // then
+    assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), drawn);
+    verify(generatorBagRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  void givenOptionNoLongerValid_whenDrawing_thenOptionIsSkipped() {
+    // given
+    DrawBag bag = new DrawBag(new long[] {3, 1, 2}, 0);
+    when(generatorBagRepository.findById(1L))
+        .thenReturn(Optional.of(new GeneratorBag(1L, bag.encodeOptionIds(), 0)));
+    OptionSampler sampler = new OptionSampler(1L, options.subList(0, 2), new long[] {1, 1});
+
+    // when
+    Option first = bagStore.next(1L, sampler, random);
+    Option second = bagStore.next(1L, sampler, random);
+
+    // then
+    assertEquals(1L, first.id);
+    assertEquals(2L, second.id);
+  }
+
+  @Test
+  void givenDrawnBag_whenFlushing_thenBagIsSavedOnce() {
+    // given
+    when(generatorBagRepository.findById(1L)).thenReturn(Optional.empty());
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1, 1, 1});
+    bagStore.next(1L, sampler, random);
+    bagStore.next(1L, sampler, random);
+
+    // when
+    bagStore.flush();
+    bagStore.flush();
+
+    // then
+    verify(generatorBagRepository, times(1)).save(any(GeneratorBag.class));
+  }
+
+  @Test
+  void givenDiscardInTransaction_whenCommitted_thenBagIsDroppedAndNotFlushedBack() {
+    // given
+    when(generatorBagRepository.findById(1L)).thenReturn(Optional.empty());
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1, 1, 1});
+    bagStore.next(1L, sampler, random);
+    TransactionSynchronizationManager.initSynchronization();
+
+    try {
+      // when
+      bagStore.discard(1L);
+      verify(generatorBagRepository, never()).deleteById(1L);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      bagStore.flush();
+
+      // then
+      verify(generatorBagRepository, times(1)).deleteById(1L);
+      verify(generatorBagRepository, never()).save(any(GeneratorBag.class));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void givenDiscardInTransaction_whenRolledBack_thenBagIsKept() {
+    // given
+    when(generatorBagRepository.findById(1L)).thenReturn(Optional.empty());
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1, 1, 1});
+    bagStore.next(1L, sampler, random);
+    TransactionSynchronizationManager.initSynchronization();
+
+    try {
+      // when
+      bagStore.discard(1L);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(
+              synchronization ->
+                  synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+      bagStore.flush();
+
+      // then
+      verify(generatorBagRepository, never()).deleteById(1L);
+      verify(generatorBagRepository, times(1)).save(any(GeneratorBag.class));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void givenDrawsInTransaction_whenRolledBack_thenTheyAreDrawnAgain() {
+    // given
+    when(generatorBagRepository.findById(1L)).thenReturn(Optional.empty());
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1, 1, 1});
+    Long kept = bagStore.next(1L, sampler, random).id;
+    TransactionSynchronizationManager.initSynchronization();
+    Set<Long> rolledBack = new HashSet<>();
+
+    try {
+      rolledBack.add(bagStore.next(1L, sampler, random).id);
+      rolledBack.add(bagStore.next(1L, sampler, random).id);
+
+      // when
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(
+              synchronization ->
+                  synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // then
+    Set<Long> drawnAgain = new HashSet<>();
+    drawnAgain.add(bagStore.next(1L, sampler, random).id);
+    drawnAgain.add(bagStore.next(1L, sampler, random).id);
+    assertEquals(rolledBack, drawnAgain);
+    Set<Long> rest = new HashSet<>();
+    rest.add(bagStore.next(1L, sampler, random).id);
+    rest.add(bagStore.next(1L, sampler, random).id);
+    assertFalse(rest.contains(kept));
+    assertTrue(Collections.disjoint(rest, rolledBack));
+  }
+
+  @Test
+  void givenRefilledBag_whenPuttingBackAnEarlierRound_thenBagIsUnchanged() {
+    // given
+    DrawBag bag = new DrawBag();
+    bag.refill(new long[] {10, 20}, random);
+    int round = bag.getRound();
+    long drawn = bag.next(id -> true);
+    bag.refill(new long[] {10, 20}, random);
+    bag.next(id -> true);
+
+    // when
+    bag.putBack(drawn, round);
+
+    // then
+    assertEquals(1, bag.remaining());
+  }
+
+  @Test
+  void givenEncodedBag_whenDecoding_thenIdsAndCursorAreRestored() {
+    // given
+    DrawBag bag = new DrawBag();
+    bag.refill(new long[] {10, 20, 30, 40}, random);
+    long first = bag.next(id -> true);
+
+    // when
+    DrawBag decoded = DrawBag.decode(bag.encodeOptionIds(), bag.getCursor());
+
+    // then
+    assertEquals(3, decoded.remaining());
+    assertNotEquals(first, decoded.next(id -> true));
+  }
+}
@@ -0,0 +1,41 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.sampler.AliasTable;
+import be.mobile.rngenius.generator.sampler.DrawSimulation;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class DrawSimulationTest {
+
+  @Test
+  void givenWeights_whenSimulating_thenEveryDrawIsCountedInProportion() {
+    // given
+    AliasTable<String> table = new AliasTable<>(List.of("a", "b", "c"), new long[] {1, 3, 0});
+    int draws = 1_000_000;
+
+    // when
+    long[] counts = DrawSimulation.run(table, draws, 42);
+
+    // then
+    assertEquals(draws, Arrays.stream(counts).sum());
+    assertEquals(0.25, counts[0] / (double) draws, 0.005);
+    assertEquals(0.75, counts[1] / (double) draws, 0.005);
+    assertEquals(0, counts[2]);
+  }
+
+  @Test
+  void givenSameSeed_whenSimulating_thenCountsAreReproduced() {
+    // given
+    AliasTable<String> table = new AliasTable<>(List.of("a", "b"), new long[] {2, 5});
+
+    // when
+    long[] first = DrawSimulation.run(table, 300_000, 7);
+    long[] second = DrawSimulation.run(table, 300_000, 7);
+
+    // then
+    assertArrayEquals(first, second);
+  }
+}
@@ -0,0 +1,64 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.sampler.FenwickTree;
+import org.junit.jupiter.api.Test;
+
+public class FenwickTreeTest {
+
+  @Test
+  void givenWeights_whenSummingPrefixes_thenSumsMatchWeights() {
+    // given
+    FenwickTree tree = new FenwickTree(new long[] {3, 0, 2, 5, 1});
+
+    // when
+    // then
+    assertEquals(0, tree.prefixSum(0));
+    assertEquals(3, tree.prefixSum(2));
+    assertEquals(10, tree.prefixSum(4));
+    assertEquals(11, tree.total());
+  }
+
+  @Test
+  void givenWeights_whenFindingTargets_thenItemOwningTargetIsReturned() {
+    // given
+    FenwickTree tree = new FenwickTree(new long[] {3, 0, 2, 5, 1});
+    int[] expected = {0, 0, 0, 2, 2, 3, 3, 3, 3, 3, 4};
+
+    // when
+    // then
+    for (int target = 0; target < expected.length; target++) {
+      assertEquals(expected[target], tree.find(target));
+    }
+  }
+
+  @Test
+  void givenPointUpdate_whenFindingTargets_thenNewWeightIsUsed() {
+    // given
+    FenwickTree tree = new FenwickTree(new long[] {3, 0, 2});
+
+    // when
+    tree.set(0, 0);
+    tree.set(1, 4);
+
+    // then
+    assertEquals(6, tree.total());
+    assertEquals(1, tree.find(0));
+    assertEquals(1, tree.find(3));
+    assertEquals(2, tree.find(4));
+  }
+
+  @Test
+  void givenNegativeWeight_whenUpdating_thenIllegalArgumentExceptionIsThrown() {
+    // given
+    FenwickTree tree = new FenwickTree(new long[] {1});
+
+    // when
+    IllegalArgumentException ex =
+        assertThrows(IllegalArgumentException.class, () -> tree.set(0, -1));
+
+    // then
+    assertEquals("Weights cannot be negative", ex.getMessage());
+  }
+}
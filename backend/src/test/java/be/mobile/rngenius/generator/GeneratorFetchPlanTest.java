@@ -0,0 +1,238 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.response.GeneratorDetailRes;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.generator.model.response.OptionDetailRes;
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.service.GeneratorService;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.stats.service.DrawStatistics;
+import be.mobile.rngenius.user.model.User;
+import be.mobile.rngenius.user.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// the statistics count every statement, so the background flushes only run at startup
+@SpringBootTest(
+    properties = {"rngenius.stats.flush-delay=3600000", "rngenius.bag.flush-delay=3600000"})
+public class GeneratorFetchPlanTest {
+
+  private static final int OPTIONS = 20;
+
+  private static final int PARTICIPANTS = 5;
+
+  @Autowired private GeneratorService generatorService;
+
+  @Autowired private GeneratorRepository generatorRepository;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private DrawStatistics drawStatistics;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private Long generatorId;
+
+  private Long ownerId;
+
+  private Long participantId;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+
+    String suffix = System.nanoTime() + "@fetchplan.be";
+    ownerId = userRepository.save(new User("Owner", "Test", "owner" + suffix, "Test123!")).id;
+    generatorService.addGenerator(new Generator("Fetch plan", 1), ownerId);
+    generatorId = generatorRepository.findGeneratorsByUserId(ownerId).get(0).id;
+
+    for (int i = 1; i < PARTICIPANTS; i++) {
+      String email = "participant" + i + suffix;
+      participantId = userRepository.save(new User("Participant", "Test", email, "Test123!")).id;
+      generatorService.addGeneratorParticipant(generatorId, email, ownerId);
+    }
+
+    for (int i = 0; i < OPTIONS; i++) {
+      generatorService.addGeneratorOption(
+          generatorId,
+          new Option("Option " + i, new ArrayList<>(List.of("First", "Second")), "Description"),
+          ownerId);
+    }
+
+    List<OptionDetailRes> options =
+        generatorService.getGeneratorDetail(generatorId, ownerId).options;
+    generatorService.excludeOption(options.get(0).id, participantId);
+    generatorService.favoriseOption(options.get(1).id, participantId);
+    generatorService.favoriseOption(options.get(1).id, ownerId);
+  }
+
+  @Test
+  public void givenGenerator_whenAuthorizing_thenAtMostOneStatement() throws Exception {
+    // given
+    statistics.clear();
+
+    // when
+    Generator generator = generatorService.getGeneratorById(generatorId, participantId);
+
+    // then
+    assertEquals(PARTICIPANTS, generator.getParticipants().size());
+    assertStatementsAtMost(1);
+  }
+
+  @Test
+  public void givenGenerator_whenGettingDetail_thenStatementsDoNotGrowWithOptions()
+      throws Exception {
+    // given
+    statistics.clear();
+
+    // when
+    GeneratorDetailRes detail = generatorService.getGeneratorDetail(generatorId, participantId);
+
+    // then
+    assertEquals(OPTIONS, detail.options.size());
+    assertEquals(PARTICIPANTS, detail.participants.size());
+    assertStatementsAtMost(3);
+  }
+
+  @Test
+  public void givenUncachedSampler_whenDrawing_thenStatementsDoNotGrowWithOptions()
+      throws Exception {
+    // given
+    statistics.clear();
+
+    // when
+    generatorService.generateOption(generatorId, participantId);
+
+    // then
+    assertStatementsAtMost(4);
+  }
+
+  @Test
+  public void givenCachedSampler_whenDrawing_thenOnlyTheDrawIsQueried() throws Exception {
+    // given
+    generatorService.generateOption(generatorId, participantId);
+    statistics.clear();
+
+    // when
+    generatorService.generateOption(generatorId, participantId);
+
+    // then
+    assertStatementsAtMost(3);
+  }
+
+  @Test
+  public void givenCategory_whenPrioritisingCategory_thenStatementsDoNotGrowWithOptions()
+      throws Exception {
+    // given
+    statistics.clear();
+
+    // when
+    generatorService.prioritiseCategory(generatorId, "First", participantId);
+
+    // then
+    assertStatementsAtMost(6);
+    GeneratorDetailRes detail = generatorService.getGeneratorDetail(generatorId, participantId);
+    assertTrue(detail.options.stream().allMatch(o -> o.favouriteCount >= 1));
+    assertTrue(detail.options.stream().allMatch(o -> o.excludedCount == 0));
+  }
+
+  @Test
+  public void givenLastCategory_whenDeletingCategorizedOption_thenOptionIsRemoved()
+      throws Exception {
+    // given
+    Long optionId = generatorService.getGeneratorDetail(generatorId, ownerId).options.get(2).id;
+    generatorService.deleteCategorizedGeneratorOption(optionId, "First", ownerId);
+
+    // when
+    generatorService.deleteCategorizedGeneratorOption(optionId, "Second", ownerId);
+
+    // then
+    GeneratorDetailRes detail = generatorService.getGeneratorDetail(generatorId, ownerId);
+    assertEquals(OPTIONS - 1, detail.options.size());
+    assertEquals(List.of("First", "Second"), detail.options.get(2).categories);
+  }
+
+  @Test
+  public void givenNotifiedResults_whenPaging_thenPagesAreNewestFirstAndLoadedInOneGo()
+      throws Exception {
+    // given
+    generatorService.toggleNotifications(generatorId, participantId);
+    generatorService.generateOptions(generatorId, 30, participantId);
+    statistics.clear();
+
+    // when
+    List<Result> firstPage = generatorService.getMyNotifiedResults(null, 20, participantId);
+    List<Result> secondPage =
+        generatorService.getMyNotifiedResults(firstPage.get(19).id, 20, participantId);
+
+    // then
+    assertEquals(20, firstPage.size());
+    assertEquals(10, secondPage.size());
+    assertTrue(firstPage.get(0).id > firstPage.get(19).id);
+    assertTrue(firstPage.get(19).id > secondPage.get(0).id);
+    assertStatementsAtMost(4);
+  }
+
+  @Test
+  public void givenBurstBiggerThanAPage_whenPolling_thenEveryResultIsReturned() throws Exception {
+    // given
+    generatorService.toggleNotifications(generatorId, participantId);
+    generatorService.generateOptions(generatorId, 150, participantId);
+
+    // when
+    List<Result> firstPoll = poll(0);
+    List<Result> secondPoll = poll(firstPoll.get(firstPoll.size() - 1).id);
+
+    // then
+    assertEquals(100, firstPoll.size());
+    assertEquals(50, secondPoll.size());
+    List<Long> ids = new ArrayList<>();
+    firstPoll.forEach(result -> ids.add(result.id));
+    secondPoll.forEach(result -> ids.add(result.id));
+    assertEquals(ids.stream().sorted().distinct().toList(), ids);
+  }
+
+  @Test
+  public void givenFlushedDraws_whenGettingStats_thenResultsAreNotScanned() throws Exception {
+    // given
+    generatorService.generateOptions(generatorId, 30, participantId);
+    drawStatistics.flush();
+    generatorService.generateOption(generatorId, participantId);
+    statistics.clear();
+
+    // when
+    GeneratorStatsRes stats = generatorService.getGeneratorStats(generatorId, 30, participantId);
+
+    // then
+    assertEquals(31, stats.draws);
+    assertEquals(31, stats.options.stream().mapToLong(o -> o.draws).sum());
+    assertEquals(31, stats.days.get(stats.days.size() - 1).draws);
+    assertStatementsAtMost(4);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Result> poll(long after) throws Exception {
+    return (List<Result>)
+        generatorService.waitForMyNotifiedResults(after, "1s", participantId).getResult();
+  }
+
+  private void assertStatementsAtMost(long max) {
+    long statements = statistics.getPrepareStatementCount();
+    assertTrue(statements <= max, "Expected at most " + max + " statements, got " + statements);
+  }
+}
@@ -2,33 +2,70 @@ package be.mobile.rngenius.generator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import be.mobile.rngenius.category.model.Category;
+import be.mobile.rngenius.category.repo.CategoryRepository;
+import be.mobile.rngenius.generator.event.GeneratorChangedEvent;
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.event.SelectionChangedEvent;
+import be.mobile.rngenius.generator.model.DrawMode;
 import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.GeneratorSummary;
+import be.mobile.rngenius.generator.model.WeightSnapshot;
+import be.mobile.rngenius.generator.model.response.ChangesRes;
+import be.mobile.rngenius.generator.model.response.GeneratorDetailRes;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.generator.model.response.SimulationRes;
+import be.mobile.rngenius.generator.model.response.VerificationRes;
+import be.mobile.rngenius.generator.random.RandomSource;
+import be.mobile.rngenius.generator.random.SeededRandomSource;
 import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.repo.WeightSnapshotRepository;
+import be.mobile.rngenius.generator.sampler.BagStore;
+import be.mobile.rngenius.generator.sampler.OptionSampler;
+import be.mobile.rngenius.generator.sampler.SamplerCache;
 import be.mobile.rngenius.generator.service.GeneratorService;
 import be.mobile.rngenius.generator.service.GeneratorServiceAuthorizationException;
 import be.mobile.rngenius.generator.service.GeneratorServiceException;
+import be.mobile.rngenius.generator.wait.ResultWaiter;
 import be.mobile.rngenius.option.model.Option;
 import be.mobile.rngenius.option.repo.OptionRepository;
 import be.mobile.rngenius.participant.model.Participant;
 import be.mobile.rngenius.participant.repo.ParticipantRepository;
 import be.mobile.rngenius.result.model.Result;
-import be.mobile.rngenius.result.repo.ResultRepository;
+import be.mobile.rngenius.result.store.ResultStore;
+import be.mobile.rngenius.selection.model.MarkedSelection;
 import be.mobile.rngenius.selection.model.Selection;
 import be.mobile.rngenius.selection.repo.SelectionRepository;
+import be.mobile.rngenius.stats.service.DrawStatistics;
+import be.mobile.rngenius.sync.model.ChangeSequence;
+import be.mobile.rngenius.sync.model.Tombstone;
+import be.mobile.rngenius.sync.model.TombstoneType;
+import be.mobile.rngenius.sync.repo.TombstoneRepository;
+import be.mobile.rngenius.sync.service.TombstoneRetention;
 import be.mobile.rngenius.user.model.User;
 import be.mobile.rngenius.user.service.UserService;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class GeneratorServiceTest {
@@ -37,14 +74,34 @@ public class GeneratorServiceTest {
 
   @Mock private OptionRepository optionRepository;
 
+  @Mock private CategoryRepository categoryRepository;
+
   @Mock private ParticipantRepository participantRepository;
 
   @Mock private SelectionRepository selectionRepository;
 
-  @Mock private ResultRepository resultRepository;
+  @Mock private ResultStore resultStore;
+
+  @Mock private WeightSnapshotRepository weightSnapshotRepository;
 
   @Mock private UserService userService;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Spy private SamplerCache samplerCache = new SamplerCache();
+
+  @Spy private RandomSource randomSource = new SeededRandomSource(42);
+
+  @Mock private BagStore bagStore;
+
+  @Mock private TombstoneRepository tombstoneRepository;
+
+  @Mock private TombstoneRetention tombstoneRetention;
+
+  @Mock private ResultWaiter resultWaiter;
+
+  @Mock private DrawStatistics drawStatistics;
+
   @InjectMocks private GeneratorService generatorService;
 
   private Generator generator;
@@ -94,6 +151,10 @@ public class GeneratorServiceTest {
     participant2.setSelections(List.of(selection2));
     option1.setSelections(List.of(selection1));
     option2.setSelections(List.of(selection2));
+    // detail and draws read the options with their categories, whatever the test set up
+    lenient()
+        .when(optionRepository.findOptionsWithCategoriesByGeneratorId(anyLong()))
+        .thenAnswer(invocation -> generator.getOptions());
   }
 
   @Test
@@ -143,15 +204,40 @@ public class GeneratorServiceTest {
     assertEquals("You are not authorized to view this generator", ex.getMessage());
   }
 
+  @Test
+  void givenParticipant_whenGettingGeneratorDetail_thenOnlyOwnSelectionsAndMarksReturned()
+      throws Exception {
+    // given
+    option1.setFavouriteCount(2);
+    MarkedSelection marked = mock(MarkedSelection.class);
+    when(marked.getOptionId()).thenReturn(option1.id);
+    when(marked.getFavorised()).thenReturn(true);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(selectionRepository.findMarkedSelectionsByGeneratorIdAndUserId(generator.id, user2.id))
+        .thenReturn(List.of(marked));
+
+    // when
+    GeneratorDetailRes detail = generatorService.getGeneratorDetail(generator.id, user2.id);
+
+    // then
+    assertEquals(2, detail.options.size());
+    assertEquals(2, detail.options.get(0).favouriteCount);
+    assertTrue(detail.options.get(0).favorised);
+    assertFalse(detail.options.get(0).excluded);
+    assertFalse(detail.options.get(1).favorised);
+    assertTrue(detail.participants.get(0).selections.isEmpty());
+    assertEquals(List.of(selection2), detail.participants.get(1).selections);
+  }
+
   @Test
   void givenValidRequesterId_whenGettingMyGenerators_thenGeneratorsReturned() {
     // given
-    List<Generator> generators = new ArrayList<>();
-    generators.add(generator);
-    when(generatorRepository.findAll()).thenReturn(generators);
+    GeneratorSummary summary = mock(GeneratorSummary.class);
+    when(generatorRepository.findGeneratorSummariesByParticipantUserId(user1.id))
+        .thenReturn(List.of(summary));
 
     // when
-    List<Generator> foundGenerators = generatorService.getMyGenerators(user1.id);
+    List<GeneratorSummary> foundGenerators = generatorService.getMyGenerators(user1.id);
 
     // then
     assertNotNull(foundGenerators);
@@ -248,11 +334,51 @@ public class GeneratorServiceTest {
     assertEquals("You are not authorized to delete this generator", ex.getMessage());
   }
 
+  @Test
+  void givenOwner_whenSettingDrawModeToRandom_thenBagIsDiscarded() throws Exception {
+    // given
+    generator.setDrawMode(DrawMode.BAG);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    generatorService.setDrawMode(generator.id, DrawMode.RANDOM, user1.id);
+
+    // then
+    assertEquals(DrawMode.RANDOM, generator.getDrawMode());
+    verify(bagStore, times(1)).discard(generator.id);
+    verify(generatorRepository, times(1)).save(generator);
+  }
+
+  @Test
+  void
+      givenUnauthorizedRequesterId_whenSettingDrawMode_thenGeneratorServiceAuthorizationExceptionIsThrown()
+          throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    GeneratorServiceAuthorizationException ex =
+        assertThrows(
+            GeneratorServiceAuthorizationException.class,
+            () -> generatorService.setDrawMode(generator.id, DrawMode.BAG, user2.id));
+
+    // then
+    assertEquals("generator", ex.getField());
+    assertEquals("You are not authorized to update this generator", ex.getMessage());
+    assertEquals(DrawMode.RANDOM, generator.getDrawMode());
+  }
+
   @Test
   void givenValidGeneratorIdOptionAndRequesterId_whenAddingGeneratorOption_thenOptionAdded()
       throws Exception {
     // given
+    Category category1 = new Category("Category1", generator);
+    category1.id = 1L;
     when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(categoryRepository.findCategoriesByGeneratorIdAndNameIn(
+            generator.id, List.of("Category1", "Category2")))
+        .thenReturn(List.of(category1));
+    when(categoryRepository.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
     when(optionRepository.save(option1)).thenReturn(option1);
 
     // when
@@ -260,6 +386,9 @@ public class GeneratorServiceTest {
 
     // then
     verify(optionRepository, times(1)).save(option1);
+    verify(categoryRepository, times(1)).save(any(Category.class));
+    assertEquals(List.of("Category1", "Category2"), option1.getCategories());
+    assertSame(category1, option1.getCategorySet().iterator().next());
   }
 
   @Test
@@ -267,11 +396,14 @@ public class GeneratorServiceTest {
       givenValidGeneratorIdOptionAndRequesterIdAndOptionWithNameAlreadyExist_whenAddingGeneratorOption_thenOptionDescriotpionIsOverwrittenAndNewCategroiesAreAdded()
           throws Exception {
     // given
+    Category dessert = new Category("dessert", generator);
+    dessert.id = 1L;
+
     Option oldOption = new Option();
     oldOption.id = (1L);
     oldOption.setName("cake");
     oldOption.setDescription("i love cake");
-    oldOption.setCategories(new ArrayList<>(List.of("dessert")));
+    oldOption.setCategorySet(new LinkedHashSet<>(List.of(dessert)));
 
     generator.setOptions(new ArrayList<>(List.of(oldOption)));
 
@@ -279,26 +411,23 @@ public class GeneratorServiceTest {
     option.id = (2L);
     option.setName("cake");
     option.setDescription("i hate cake");
-    option.setCategories(new ArrayList<>(List.of("food")));
-
-    Option newOption = new Option();
-    newOption.id = (1L);
-    newOption.setName("cake");
-    newOption.setDescription("i hate cake");
-    newOption.setCategories(new ArrayList<>(List.of("dessert", "food")));
+    option.setCategories(new ArrayList<>(List.of("dessert", "food")));
 
     when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(optionRepository.save(oldOption)).thenReturn(newOption);
+    when(categoryRepository.findCategoriesByGeneratorIdAndNameIn(
+            generator.id, List.of("dessert", "food")))
+        .thenReturn(List.of(dessert));
+    when(categoryRepository.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+    when(optionRepository.save(oldOption)).thenReturn(oldOption);
 
     // when
     generatorService.addGeneratorOption(generator.id, option, user1.id);
 
     // then
     verify(optionRepository, times(1)).save(oldOption);
-    assertEquals("i hate cake", newOption.getDescription());
-    assertEquals(2, newOption.getCategories().size());
-    assertEquals("dessert", newOption.getCategories().get(0));
-    assertEquals("food", newOption.getCategories().get(1));
+    verify(categoryRepository, times(1)).save(argThat(c -> c.getName().equals("food")));
+    assertEquals("i hate cake", oldOption.getDescription());
+    assertEquals(List.of("dessert", "food"), oldOption.getCategories());
   }
 
   @Test
@@ -319,14 +448,18 @@ public class GeneratorServiceTest {
       givenValidOptionIdCategoryAndRequesterId_whenDeletingCategorizedGeneratorOption_thenOptionDeleted()
           throws Exception {
     // given
-    option1.setCategories(new ArrayList<>(List.of("category")));
+    Category category = new Category("category", generator);
+    option1.setCategorySet(new LinkedHashSet<>(List.of(category)));
     when(optionRepository.findOptionById(option1.id)).thenReturn(option1);
+    when(categoryRepository.findCategoryByGeneratorIdAndName(generator.id, "category"))
+        .thenReturn(category);
 
     // when
     generatorService.deleteCategorizedGeneratorOption(option1.id, "category", user1.id);
 
     // then
     verify(optionRepository, times(1)).delete(option1);
+    verify(categoryRepository, times(1)).deleteUnusedCategoriesByGeneratorId(generator.id);
   }
 
   @Test
@@ -334,16 +467,20 @@ public class GeneratorServiceTest {
       givenValidOptionIdCategoryAndRequesterId_whenDeletingCategorizedGeneratorOptionButStillCategoryRemaining_thenOptionCateryDeleted()
           throws Exception {
     // given
-    option1.setCategories(new ArrayList<>(List.of("category1", "category2")));
+    Category category1 = new Category("category1", generator);
+    Category category2 = new Category("category2", generator);
+    option1.setCategorySet(new LinkedHashSet<>(List.of(category1, category2)));
     when(optionRepository.findOptionById(option1.id)).thenReturn(option1);
+    when(categoryRepository.findCategoryByGeneratorIdAndName(generator.id, "category1"))
+        .thenReturn(category1);
 
     // when
     generatorService.deleteCategorizedGeneratorOption(option1.id, "category1", user1.id);
 
     // then
     verify(optionRepository, times(0)).delete(option1);
-    assertEquals(1, option1.getCategories().size());
-    assertEquals("category2", option1.getCategories().get(0));
+    verify(optionRepository, times(1)).save(option1);
+    assertEquals(List.of("category2"), option1.getCategories());
   }
 
   @Test
@@ -383,12 +520,9 @@ public class GeneratorServiceTest {
   void givenValidGeneratorIdAndRequesterId_whenGeneratingOption_thenOptionReturned()
       throws Exception {
     // given
-    selection2.setExcluded(true);
-    selection1.setFavorised(true);
     when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(selectionRepository.findSelectionsByOptionId(option1.id)).thenReturn(List.of(selection1));
-    when(selectionRepository.findSelectionsByOptionId(option2.id)).thenReturn(List.of(selection2));
-    when(resultRepository.save(any(Result.class))).thenReturn(new Result());
+    option1.setFavouriteCount(1);
+    option2.setExcludedCount(1);
 
     // when
     Option generatedOption = generatorService.generateOption(generator.id, user1.id);
@@ -396,7 +530,283 @@ public class GeneratorServiceTest {
     // then
     assertNotNull(generatedOption);
     assertEquals(option1.id, generatedOption.id);
-    verify(resultRepository, times(1)).save(any(Result.class));
+    verify(resultStore, times(1)).save(any(Result.class));
+  }
+
+  @Test
+  void givenCachedSampler_whenGeneratingOptionTwice_thenSelectionsAreOnlyLoadedOnce()
+      throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    generatorService.generateOption(generator.id, user1.id);
+    generator.setOptions(new ArrayList<>());
+    generatorService.generateOption(generator.id, user1.id);
+
+    // then
+    verify(resultStore, times(2)).save(any(Result.class));
+  }
+
+  @Test
+  void givenGeneratorChanged_whenGeneratingOption_thenSamplerIsRebuilt() throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    generatorService.generateOption(generator.id, user1.id);
+    option1.setExcludedCount(1);
+
+    // when
+    samplerCache.onGeneratorChanged(new GeneratorChangedEvent(generator.id));
+    Option generatedOption = generatorService.generateOption(generator.id, user1.id);
+
+    // then
+    assertEquals(option2.id, generatedOption.id);
+  }
+
+  @Test
+  void givenCount_whenGeneratingOptions_thenAllResultsAreInsertedInOneBatch() throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    option2.setFavouriteCount(2);
+    when(userService.getUserById(user1.id)).thenReturn(user1);
+
+    // when
+    List<Option> generatedOptions = generatorService.generateOptions(generator.id, 50, user1.id);
+
+    // then
+    assertEquals(50, generatedOptions.size());
+    verify(resultStore, times(1)).saveAll(argThat(results -> results.size() == 50));
+    verify(resultStore, never()).save(any(Result.class));
+    verify(userService, times(1)).getUserById(user1.id);
+  }
+
+  @Test
+  void givenNotifyingParticipant_whenGeneratingOption_thenDrawNamesTheNotifiedUsers()
+      throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    participant2.setNotifications(true);
+
+    // when
+    generatorService.generateOption(generator.id, user1.id);
+
+    // then
+    ArgumentCaptor<ResultsDrawnEvent> event = ArgumentCaptor.forClass(ResultsDrawnEvent.class);
+    verify(eventPublisher, atLeastOnce()).publishEvent(event.capture());
+    assertEquals(Set.of(user2.id), event.getValue().notifiedUserIds());
+  }
+
+  @Test
+  void givenInvalidCount_whenGeneratingOptions_thenGeneratorServiceExceptionIsThrown() {
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.generateOptions(generator.id, 0, user1.id));
+
+    // then
+    assertEquals("count", ex.getField());
+    assertEquals("Count has to be between 1 and 1000", ex.getMessage());
+    verify(generatorRepository, never()).findGeneratorById(generator.id);
+  }
+
+  @Test
+  void givenCategories_whenGeneratingOption_thenOptionIsDrawnFromThoseCategories()
+      throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    Option generatedOption =
+        generatorService.generateOption(generator.id, List.of("Category3"), user1.id);
+
+    // then
+    assertEquals(option2.id, generatedOption.id);
+    verify(resultStore, times(1)).save(any(Result.class));
+  }
+
+  @Test
+  void givenCategoriesAndCount_whenGeneratingOptions_thenAllAreDrawnFromThoseCategories()
+      throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(userService.getUserById(user1.id)).thenReturn(user1);
+
+    // when
+    List<Option> generatedOptions =
+        generatorService.generateOptions(generator.id, 5, List.of("Category3"), user1.id);
+
+    // then
+    assertEquals(5, generatedOptions.size());
+    assertTrue(generatedOptions.stream().allMatch(option -> option.id.equals(option2.id)));
+    verify(resultStore, times(1)).saveAll(argThat(results -> results.size() == 5));
+  }
+
+  @Test
+  void
+      givenCategoriesWithoutValidOptions_whenGeneratingOption_thenGeneratorServiceExceptionIsThrown() {
+    // given
+    option2.setExcludedCount(1);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.generateOption(generator.id, List.of("Category3"), user1.id));
+
+    // then
+    assertEquals("categories", ex.getField());
+    assertEquals("No valid options available in these categories", ex.getMessage());
+    verify(resultStore, never()).save(any(Result.class));
+  }
+
+  @Test
+  void givenBagDrawModeAndCategories_whenGeneratingOption_thenGeneratorServiceExceptionIsThrown() {
+    // given
+    generator.setDrawMode(DrawMode.BAG);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.generateOption(generator.id, List.of("Category1"), user1.id));
+
+    // then
+    assertEquals("categories", ex.getField());
+    verify(bagStore, never()).next(any(), any(), any());
+  }
+
+  @Test
+  void givenBagDrawMode_whenGeneratingOption_thenOptionIsTakenFromBag() throws Exception {
+    // given
+    generator.setDrawMode(DrawMode.BAG);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(bagStore.next(eq(generator.id), any(OptionSampler.class), any())).thenReturn(option2);
+
+    // when
+    Option generatedOption = generatorService.generateOption(generator.id, user1.id);
+
+    // then
+    assertEquals(option2.id, generatedOption.id);
+    verify(bagStore, times(1)).next(eq(generator.id), any(OptionSampler.class), any());
+    verify(resultStore, times(1)).save(any(Result.class));
+  }
+
+  @Test
+  void givenVerifiableDrawMode_whenGeneratingOptions_thenResultsShareSeedAndCountUp()
+      throws Exception {
+    // given
+    generator.setDrawMode(DrawMode.VERIFIABLE);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    option1.setFavouriteCount(3);
+    when(userService.getUserById(user1.id)).thenReturn(user1);
+
+    // when
+    generatorService.generateOptions(generator.id, 3, user1.id);
+
+    // then
+    verify(weightSnapshotRepository, times(1))
+        .insertIfAbsent(anyString(), eq(generator.id), anyString());
+    verify(resultStore)
+        .saveAll(
+            argThat(
+                results ->
+                    results.get(0).getSeed() != null
+                        && results.stream()
+                            .allMatch(r -> r.getSeed().equals(results.get(0).getSeed()))
+                        && results.get(2).getCounter() == 2L
+                        && results.get(2).getWeightSnapshotHash() != null));
+  }
+
+  @Test
+  void givenFavourite_whenSimulatingDraws_thenProbabilitiesFollowWeights() throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    option2.setFavouriteCount(2);
+
+    // when
+    SimulationRes simulation = generatorService.simulateDraws(generator.id, 200_000, user2.id);
+
+    // then
+    assertEquals(200_000, simulation.draws);
+    assertEquals(1, simulation.degreesOfFreedom);
+    assertEquals(0.25, simulation.options.get(0).theoreticalProbability);
+    assertEquals(0.75, simulation.options.get(1).theoreticalProbability);
+    assertEquals(0.75, simulation.options.get(1).empiricalProbability, 0.01);
+    assertTrue(simulation.chiSquare < 10.83);
+    verify(resultStore, never()).save(any(Result.class));
+  }
+
+  @Test
+  void givenTooManyDraws_whenSimulatingDraws_thenGeneratorServiceExceptionIsThrown() {
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.simulateDraws(generator.id, 10_000_001, user1.id));
+
+    // then
+    assertEquals("draws", ex.getField());
+    assertEquals("Draws have to be between 1 and 10000000", ex.getMessage());
+  }
+
+  @Test
+  void givenVerifiableResult_whenVerifyingResult_thenDrawIsReproduced() throws Exception {
+    // given
+    generator.setDrawMode(DrawMode.VERIFIABLE);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    option1.setFavouriteCount(1);
+    option2.setFavouriteCount(4);
+    when(userService.getUserById(user1.id)).thenReturn(user1);
+    List<Result> stored = new ArrayList<>();
+    List<WeightSnapshot> snapshots = new ArrayList<>();
+    doAnswer(invocation -> stored.addAll(invocation.getArgument(0)))
+        .when(resultStore)
+        .saveAll(any());
+    when(weightSnapshotRepository.insertIfAbsent(anyString(), eq(generator.id), anyString()))
+        .thenAnswer(
+            invocation -> {
+              WeightSnapshot snapshot = new WeightSnapshot();
+              snapshot.hash = invocation.getArgument(0);
+              ReflectionTestUtils.setField(snapshot, "weights", invocation.getArgument(2));
+              snapshots.add(snapshot);
+              return 1;
+            });
+    generatorService.generateOptions(generator.id, 20, user1.id);
+    Result result = stored.get(13);
+    result.id = 7L;
+    when(resultStore.findById(7L)).thenReturn(result);
+    when(weightSnapshotRepository.findById(result.getWeightSnapshotHash()))
+        .thenReturn(Optional.of(snapshots.get(0)));
+
+    // when
+    VerificationRes verification = generatorService.verifyResult(7L, user2.id);
+
+    // then
+    assertTrue(verification.valid);
+    assertEquals(13L, verification.counter);
+    assertEquals(result.getOption().id, verification.recomputedOptionId);
+  }
+
+  @Test
+  void givenRandomResult_whenVerifyingResult_thenGeneratorServiceExceptionIsThrown() {
+    // given
+    Result result = new Result();
+    result.setGeneratorId(generator.id);
+    result.setOption(option1);
+    when(resultStore.findById(7L)).thenReturn(result);
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class, () -> generatorService.verifyResult(7L, user1.id));
+
+    // then
+    assertEquals("result", ex.getField());
+    assertEquals("This result was not drawn verifiably", ex.getMessage());
   }
 
   @Test
@@ -422,14 +832,35 @@ public class GeneratorServiceTest {
     // given
     when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
         .thenReturn(selection1);
+    when(selectionRepository.updateFlags(
+            eq(selection1.id), eq(false), eq(false), eq(true), eq(false), anyLong()))
+        .thenReturn(1);
+
+    // when
+    generatorService.favoriseOption(option1.id, user1.id);
+
+    // then
+    verify(optionRepository, times(1)).adjustSelectionCounts(option1.id, 0, 1);
+    verify(eventPublisher, times(1))
+        .publishEvent(new SelectionChangedEvent(generator.id, option1.id));
+  }
+
+  @Test
+  void givenConcurrentToggle_whenPrioritisingOption_thenCountsAreNotAdjustedTwice()
+      throws Exception {
+    // given
+    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
+        .thenReturn(selection1);
+    when(selectionRepository.updateFlags(
+            eq(selection1.id), eq(false), eq(false), eq(true), eq(false), anyLong()))
+        .thenReturn(0);
 
     // when
     generatorService.favoriseOption(option1.id, user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    assertTrue(selection1.getFavorised());
-    assertFalse(selection1.getExcluded());
+    verify(optionRepository, never()).adjustSelectionCounts(any(), anyInt(), anyInt());
+    verify(eventPublisher, never()).publishEvent(any(SelectionChangedEvent.class));
   }
 
   @Test
@@ -438,13 +869,15 @@ public class GeneratorServiceTest {
     when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
         .thenReturn(selection1);
 
+    when(selectionRepository.updateFlags(
+            eq(selection1.id), eq(false), eq(false), eq(false), eq(true), anyLong()))
+        .thenReturn(1);
+
     // when
     generatorService.excludeOption(option1.id, user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    assertFalse(selection1.getFavorised());
-    assertTrue(selection1.getExcluded());
+    verify(optionRepository, times(1)).adjustSelectionCounts(option1.id, 1, 0);
   }
 
   @Test
@@ -592,6 +1025,82 @@ public class GeneratorServiceTest {
 
     // then
     verify(participantRepository, times(1)).delete(participant2);
+    verify(optionRepository, times(1)).recountSelectionsByGeneratorId(generator.id);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void givenParticipant_whenLeavingGenerator_thenTombstonesAreRecorded() throws Exception {
+    // given
+    participant2.id = 2L;
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(participantRepository.findParticipantByUserIdAndGeneratorId(user2.id, generator.id))
+        .thenReturn(participant2);
+
+    // when
+    generatorService.leaveGenerator(generator.id, user2.id);
+
+    // then
+    ArgumentCaptor<List<Tombstone>> tombstones = ArgumentCaptor.forClass(List.class);
+    verify(tombstoneRepository, times(2)).saveAll(tombstones.capture());
+    List<Tombstone> participantTombstones = tombstones.getAllValues().get(0);
+    assertEquals(2, participantTombstones.size());
+    assertTrue(
+        participantTombstones.stream()
+            .allMatch(t -> t.getType() == TombstoneType.PARTICIPANT && t.getEntityId() == 2L));
+    Tombstone generatorTombstone = tombstones.getAllValues().get(1).get(0);
+    assertEquals(TombstoneType.GENERATOR, generatorTombstone.getType());
+    assertEquals(user2.id, generatorTombstone.getUserId());
+  }
+
+  @Test
+  void givenNoVersion_whenGettingChanges_thenFullSyncIsReturned() {
+    // given
+    when(optionRepository.findOptionsChangedSince(user1.id, 0)).thenReturn(List.of(option1));
+
+    // when
+    ChangesRes changes = generatorService.getChangesSince(0, user1.id);
+
+    // then
+    assertTrue(changes.full);
+    assertTrue(changes.version > 0);
+    assertEquals(1, changes.options.size());
+    assertEquals(generator.id, changes.options.get(0).generatorId);
+    assertTrue(changes.tombstones.isEmpty());
+    verifyNoInteractions(tombstoneRepository);
+  }
+
+  @Test
+  void givenRecentVersion_whenGettingChanges_thenOnlyChangesAndTombstonesAreReturned() {
+    // given
+    long since = ChangeSequence.next();
+    Tombstone tombstone = new Tombstone(user1.id, TombstoneType.OPTION, 3L);
+    when(tombstoneRetention.horizon()).thenReturn(since - 1);
+    when(tombstoneRepository.findTombstonesByUserIdChangedSince(user1.id, since))
+        .thenReturn(List.of(tombstone));
+
+    // when
+    ChangesRes changes = generatorService.getChangesSince(since, user1.id);
+
+    // then
+    assertFalse(changes.full);
+    assertEquals(since, changes.version);
+    assertEquals(List.of(tombstone), changes.tombstones);
+    verify(optionRepository, times(1)).findOptionsChangedSince(user1.id, since);
+  }
+
+  @Test
+  void givenVersionBeforeRetentionHorizon_whenGettingChanges_thenFullSyncIsReturned() {
+    // given
+    when(tombstoneRetention.horizon()).thenReturn(1_000L);
+
+    // when
+    ChangesRes changes = generatorService.getChangesSince(500, user1.id);
+
+    // then
+    assertTrue(changes.full);
+    verify(generatorRepository, times(1)).findGeneratorsChangedSince(user1.id, 0);
+    verifyNoInteractions(tombstoneRepository);
   }
 
   @Test
@@ -647,19 +1156,17 @@ public class GeneratorServiceTest {
   }
 
   @Test
-  void givenValidRequesterId_whenGettingMyNotifiedResults_thenResultsReturned() {
+  void givenValidRequesterId_whenGettingMyNotifiedResults_thenResultsReturned() throws Exception {
     // given
-    participant1.setNotifications(true);
     Result result = new Result();
     result.setUser(user1);
     result.setGeneratorId(generator.id);
     result.setOption(option1);
-    when(participantRepository.findParticipantsByUserId(user1.id))
-        .thenReturn(List.of(participant1));
-    when(resultRepository.findResultsByGeneratorId(generator.id)).thenReturn(List.of(result));
+    when(resultStore.findNotifiedResultsBefore(user1.id, Long.MAX_VALUE, 50))
+        .thenReturn(List.of(result));
 
     // when
-    List<Result> results = generatorService.getMyNotifiedResults(user1.id);
+    List<Result> results = generatorService.getMyNotifiedResults(null, 50, user1.id);
 
     // then
     assertNotNull(results);
@@ -668,115 +1175,155 @@ public class GeneratorServiceTest {
   }
 
   @Test
-  void
-      givenValidRequesterId_whenGettingMyNotifiedResultsWithNoNotifications_thenEmptyResultsReturned() {
+  void givenCursor_whenGettingMyNotifiedResults_thenPageBeforeCursorIsRequested() throws Exception {
     // given
-    participant1.setNotifications(false);
-    when(participantRepository.findParticipantsByUserId(user1.id))
-        .thenReturn(List.of(participant1));
+    when(resultStore.findNotifiedResultsBefore(user1.id, 120L, 20)).thenReturn(List.of());
 
     // when
-    List<Result> results = generatorService.getMyNotifiedResults(user1.id);
+    List<Result> results = generatorService.getMyNotifiedResults(120L, 20, user1.id);
 
     // then
     assertNotNull(results);
     assertTrue(results.isEmpty());
   }
 
+  @Test
+  void givenTooLargeLimit_whenGettingMyNotifiedResults_thenGeneratorServiceExceptionIsThrown() {
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.getMyNotifiedResults(null, 101, user1.id));
+
+    // then
+    assertEquals("limit", ex.getField());
+    assertEquals("Limit has to be between 1 and 100", ex.getMessage());
+  }
+
+  @Test
+  void givenValidGeneratorIdAndRequesterId_whenGettingStats_thenStatsReturned() throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    GeneratorStatsRes stats = new GeneratorStatsRes(generator.id, 0, List.of(), List.of());
+    when(drawStatistics.getStats(generator, 30)).thenReturn(stats);
+
+    // when
+    GeneratorStatsRes foundStats = generatorService.getGeneratorStats(generator.id, 30, user2.id);
+
+    // then
+    assertSame(stats, foundStats);
+  }
+
+  @Test
+  void givenTooManyDays_whenGettingStats_thenGeneratorServiceExceptionIsThrown() {
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.getGeneratorStats(generator.id, 400, user1.id));
+
+    // then
+    assertEquals("days", ex.getField());
+    assertEquals("Days have to be between 1 and 366", ex.getMessage());
+    verifyNoInteractions(drawStatistics);
+  }
+
+  @Test
+  void givenTooLongTimeout_whenWaitingForMyNotifiedResults_thenGeneratorServiceExceptionIsThrown() {
+    // when
+    GeneratorServiceException ex =
+        assertThrows(
+            GeneratorServiceException.class,
+            () -> generatorService.waitForMyNotifiedResults(0, "5m", user1.id));
+
+    // then
+    assertEquals("timeout", ex.getField());
+    assertEquals("Timeout has to be between 1 and 60 seconds", ex.getMessage());
+    verifyNoInteractions(resultWaiter);
+  }
+
   @Test
   void givenValidGeneratorIdCategoryAndRequesterId_whenPrioritisingCategory_thenOptionsPrioritised()
       throws Exception {
     // given
-    option1.setCategories(List.of("Category1"));
-    option2.setCategories(List.of("Category1"));
-    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
-        .thenReturn(selection1);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option2.id))
-        .thenReturn(selection2);
+    Category category = givenCategory("Category1");
+    when(selectionRepository.hasUnfavorisedSelectionsByCategoryId(participant1.id, category.id))
+        .thenReturn(true);
 
     // when
     generatorService.prioritiseCategory(generator.id, "Category1", user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    verify(selectionRepository, times(1)).save(selection2);
-    assertTrue(selection1.getFavorised());
-    assertFalse(selection1.getExcluded());
-    assertTrue(selection2.getFavorised());
-    assertFalse(selection2.getExcluded());
+    verify(selectionRepository, times(1))
+        .favoriseSelectionsByCategoryId(eq(participant1.id), eq(category.id), eq(true), anyLong());
+    verify(optionRepository, times(1)).recountSelectionsByCategoryId(category.id);
+    verify(eventPublisher, times(1)).publishEvent(any(GeneratorChangedEvent.class));
   }
 
   @Test
   void givenAllOptionsAlreadyPrioritised_whenPrioritisingCategory_thenOptionsUnprioritised()
       throws Exception {
     // given
-    option1.setCategories(List.of("Category1"));
-    option2.setCategories(List.of("Category1"));
-    selection1.setFavorised(true);
-    selection2.setFavorised(true);
-    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
-        .thenReturn(selection1);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option2.id))
-        .thenReturn(selection2);
+    Category category = givenCategory("Category1");
+    when(selectionRepository.hasUnfavorisedSelectionsByCategoryId(participant1.id, category.id))
+        .thenReturn(false);
 
     // when
     generatorService.prioritiseCategory(generator.id, "Category1", user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    verify(selectionRepository, times(1)).save(selection2);
-    assertFalse(selection1.getFavorised());
-    assertFalse(selection2.getFavorised());
+    verify(selectionRepository, times(1))
+        .favoriseSelectionsByCategoryId(eq(participant1.id), eq(category.id), eq(false), anyLong());
+    verify(optionRepository, times(1)).recountSelectionsByCategoryId(category.id);
   }
 
   @Test
   void givenValidGeneratorIdCategoryAndRequesterId_whenExcludingCategory_thenOptionsExcluded()
       throws Exception {
     // given
-    option1.setCategories(List.of("Category1"));
-    option2.setCategories(List.of("Category1"));
-    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
-        .thenReturn(selection1);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option2.id))
-        .thenReturn(selection2);
+    Category category = givenCategory("Category1");
+    when(selectionRepository.hasUnexcludedSelectionsByCategoryId(participant1.id, category.id))
+        .thenReturn(true);
 
     // when
     generatorService.excludeCategory(generator.id, "Category1", user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    verify(selectionRepository, times(1)).save(selection2);
-    assertTrue(selection1.getExcluded());
-    assertFalse(selection1.getFavorised());
-    assertTrue(selection2.getExcluded());
-    assertFalse(selection2.getFavorised());
+    verify(selectionRepository, times(1))
+        .excludeSelectionsByCategoryId(eq(participant1.id), eq(category.id), eq(true), anyLong());
+    verify(optionRepository, times(1)).recountSelectionsByCategoryId(category.id);
+    verify(eventPublisher, times(1)).publishEvent(any(GeneratorChangedEvent.class));
   }
 
   @Test
   void givenAllOptionsAlreadyExcluded_whenExcludingCategory_thenOptionsUnexcluded()
       throws Exception {
     // given
-    option1.setCategories(List.of("Category1"));
-    option2.setCategories(List.of("Category1"));
-    selection1.setExcluded(true);
-    selection2.setExcluded(true);
-    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option1.id))
-        .thenReturn(selection1);
-    when(selectionRepository.findSelectionByParticipantUserIdAndOptionId(user1.id, option2.id))
-        .thenReturn(selection2);
+    Category category = givenCategory("Category1");
+    when(selectionRepository.hasUnexcludedSelectionsByCategoryId(participant1.id, category.id))
+        .thenReturn(false);
 
     // when
     generatorService.excludeCategory(generator.id, "Category1", user1.id);
 
     // then
-    verify(selectionRepository, times(1)).save(selection1);
-    verify(selectionRepository, times(1)).save(selection2);
-    assertFalse(selection1.getExcluded());
-    assertFalse(selection2.getExcluded());
+    verify(selectionRepository, times(1))
+        .excludeSelectionsByCategoryId(eq(participant1.id), eq(category.id), eq(false), anyLong());
+    verify(optionRepository, times(1)).recountSelectionsByCategoryId(category.id);
+  }
+
+  @Test
+  void givenUnknownCategory_whenPrioritisingCategory_thenNothingIsUpdated() throws Exception {
+    // given
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+
+    // when
+    generatorService.prioritiseCategory(generator.id, "Unknown", user1.id);
+
+    // then
+    verify(selectionRepository, never())
+        .favoriseSelectionsByCategoryId(any(), any(), anyBoolean(), anyLong());
+    verify(eventPublisher, never()).publishEvent(any());
   }
 
   @Test
@@ -859,4 +1406,14 @@ public class GeneratorServiceTest {
     assertEquals(
         "No selection with this participant and option", ex.getTargetException().getMessage());
   }
+
+  private Category givenCategory(String name) {
+    Category category = new Category(name, generator);
+    category.id = 1L;
+    participant1.id = 1L;
+    when(generatorRepository.findGeneratorById(generator.id)).thenReturn(generator);
+    when(categoryRepository.findCategoryByGeneratorIdAndName(generator.id, name))
+        .thenReturn(category);
+    return category;
+  }
 }
@@ -0,0 +1,103 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.sampler.OptionSampler;
+import be.mobile.rngenius.option.model.Option;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OptionSamplerTest {
+
+  private OptionSampler sampler;
+
+  @BeforeEach
+  public void setUp() {
+    sampler =
+        new OptionSampler(
+            1L,
+            List.of(
+                option(1L, "pizza"),
+                option(2L, "pizza", "pasta"),
+                option(3L, "pasta"),
+                option(4L, "sushi")),
+            new long[] {1, 1, 2, 1});
+  }
+
+  @Test
+  void givenOverlappingCategories_whenSamplingFiltered_thenFrequenciesFollowWeights() {
+    // given
+    SplittableRandom random = new SplittableRandom(42);
+    int draws = 80_000;
+    int[] counts = new int[5];
+
+    // when
+    for (int i = 0; i < draws; i++) {
+      counts[sampler.sample(random, List.of("pizza", "pasta")).id.intValue()]++;
+    }
+
+    // then
+    assertEquals(0.25, counts[1] / (double) draws, 0.01);
+    assertEquals(0.25, counts[2] / (double) draws, 0.01);
+    assertEquals(0.5, counts[3] / (double) draws, 0.01);
+    assertEquals(0, counts[4]);
+  }
+
+  @Test
+  void givenWeightChanged_whenSamplingFiltered_thenCategoryFollowsTheNewWeight() {
+    // given
+    SplittableRandom random = new SplittableRandom(7);
+
+    // when
+    sampler.setWeight(3L, 0);
+
+    // then
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(2L, sampler.sample(random, List.of("pasta")).id);
+    }
+  }
+
+  @Test
+  void givenOnlyExcludedOrUnknownCategories_whenSamplingFiltered_thenNothingIsDrawn() {
+    // given
+    sampler.setWeight(4L, 0);
+
+    // when
+    // then
+    assertTrue(sampler.isEmpty(List.of("sushi", "burgers")));
+    assertNull(sampler.sample(new SplittableRandom(1), List.of("sushi", "burgers")));
+    assertFalse(sampler.isEmpty(List.of("sushi", "pizza")));
+  }
+
+  @Test
+  void givenCategories_whenTakingSnapshot_thenOnlyTheirOptionsAreFrozen() {
+    // when
+    OptionSampler.Snapshot snapshot = sampler.snapshot(List.of("pasta"));
+
+    // then
+    assertArrayEquals(new long[] {2, 3}, snapshot.getWeightSnapshot().getOptionIds());
+    assertArrayEquals(new long[] {1, 2}, snapshot.getWeightSnapshot().getOptionWeights());
+  }
+
+  @Test
+  void givenEveryOptionExcluded_whenSampling_thenNothingIsDrawn() {
+    // given
+    for (long optionId = 1; optionId <= 4; optionId++) {
+      sampler.setWeight(optionId, 0);
+    }
+
+    // when
+    // then
+    assertNull(sampler.sample(new SplittableRandom(1)));
+    assertNull(sampler.snapshot());
+    assertNull(sampler.snapshot(List.of("pizza")));
+  }
+
+  private Option option(Long id, String... categories) {
+    Option option = new Option("Option " + id, List.of(categories), "Description");
+    option.id = id;
+    return option;
+  }
+}
@@ -0,0 +1,85 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.random.CounterBasedRandom;
+import be.mobile.rngenius.generator.random.FastRandomSource;
+import be.mobile.rngenius.generator.random.RandomMode;
+import be.mobile.rngenius.generator.random.RandomSource;
+import be.mobile.rngenius.generator.random.RandomSourceConfig;
+import be.mobile.rngenius.generator.random.SecureRandomSource;
+import be.mobile.rngenius.generator.random.SeededRandomSource;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+public class RandomSourceTest {
+
+  @Test
+  void givenSameSeed_whenDrawing_thenSameSequenceReturned() {
+    // given
+    RandomSource first = new SeededRandomSource(42);
+    RandomSource second = new SeededRandomSource(42);
+
+    // when
+    // then
+    for (int i = 0; i < 100; i++) {
+      assertEquals(first.current().nextInt(1000), second.current().nextInt(1000));
+    }
+  }
+
+  @Test
+  void givenFastRandomSource_whenUsedFromTwoThreads_thenEachThreadGetsItsOwnGenerator()
+      throws Exception {
+    // given
+    RandomSource source = new FastRandomSource("L64X128MixRandom");
+
+    // when
+    RandomGenerator mine = source.current();
+    RandomGenerator other = CompletableFuture.supplyAsync(source::current).get();
+
+    // then
+    assertSame(mine, source.current());
+    assertNotSame(mine, other);
+  }
+
+  @Test
+  void givenSecureRandomSource_whenGettingGenerator_thenSecureRandomReturned() {
+    // given
+    RandomSource source = new SecureRandomSource();
+
+    // when
+    RandomGenerator generator = source.current();
+
+    // then
+    assertInstanceOf(SecureRandom.class, generator);
+    assertEquals("DRBG", ((SecureRandom) generator).getAlgorithm());
+  }
+
+  @Test
+  void givenUnknownAlgorithm_whenCreatingFastRandomSource_thenIllegalArgumentExceptionIsThrown() {
+    // when
+    // then
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> RandomSourceConfig.create(RandomMode.FAST, "NoSuchRandom", 0));
+  }
+
+  @Test
+  void givenSameSeedAndCounter_whenDrawingFromCounterBasedRandom_thenSameSequenceReturned() {
+    // given
+    CounterBasedRandom first = new CounterBasedRandom(42, 7);
+    CounterBasedRandom second = new CounterBasedRandom(42, 7);
+    CounterBasedRandom nextCounter = new CounterBasedRandom(42, 8);
+
+    // when
+    long value = first.nextLong();
+
+    // then
+    assertEquals(value, second.nextLong());
+    assertNotEquals(value, nextCounter.nextLong());
+    assertEquals(first.nextInt(100), second.nextInt(100));
+    assertEquals(first.nextDouble(), second.nextDouble());
+  }
+}
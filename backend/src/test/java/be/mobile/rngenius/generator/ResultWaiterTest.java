@@ -0,0 +1,97 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.wait.ResultWaiter;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.store.ResultStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@ExtendWith(MockitoExtension.class)
+public class ResultWaiterTest {
+
+  @Mock private ResultStore resultStore;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ResultWaiter resultWaiter;
+
+  private Result result;
+
+  @BeforeEach
+  public void setUp() {
+    resultWaiter = new ResultWaiter(resultStore, new TransactionTemplate(transactionManager), 1);
+    result = new Result();
+    result.id = 8L;
+    result.setOption(new Option("Option", new ArrayList<>(List.of("Category")), "Description"));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    resultWaiter.close();
+  }
+
+  @Test
+  void givenNewerResults_whenWaiting_thenRequestIsAnsweredRightAway() {
+    // given
+    when(resultStore.findNotifiedResultsAfter(1L, 7L, 100)).thenReturn(List.of(result));
+
+    // when
+    DeferredResult<List<Result>> deferred = resultWaiter.await(1L, 7L, 100, Duration.ofSeconds(30));
+
+    // then
+    assertEquals(List.of(result), deferred.getResult());
+  }
+
+  @Test
+  void givenNoNewerResults_whenNotifiedUserDraws_thenRequestIsAnswered() {
+    // given
+    when(resultStore.findNotifiedResultsAfter(1L, 7L, 100))
+        .thenReturn(List.of())
+        .thenReturn(List.of(result));
+    DeferredResult<List<Result>> deferred = resultWaiter.await(1L, 7L, 100, Duration.ofSeconds(30));
+
+    // when
+    resultWaiter.onResultsDrawn(new ResultsDrawnEvent(1L, List.of(result), Set.of(1L), Set.of(1L)));
+
+    // then
+    verify(resultStore, timeout(1000).times(2)).findNotifiedResultsAfter(1L, 7L, 100);
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(1),
+        () -> {
+          while (!deferred.hasResult()) {
+            Thread.onSpinWait();
+          }
+        });
+    assertEquals(List.of(result), deferred.getResult());
+  }
+
+  @Test
+  void givenWaitingRequest_whenOtherUserDraws_thenRequestKeepsWaiting() {
+    // given
+    when(resultStore.findNotifiedResultsAfter(1L, 7L, 100)).thenReturn(List.of());
+    DeferredResult<List<Result>> deferred = resultWaiter.await(1L, 7L, 100, Duration.ofSeconds(30));
+
+    // when
+    resultWaiter.onResultsDrawn(new ResultsDrawnEvent(2L, List.of(result), Set.of(2L), Set.of(2L)));
+
+    // then
+    verify(resultStore, after(100).times(1)).findNotifiedResultsAfter(1L, 7L, 100);
+    assertFalse(deferred.hasResult());
+  }
+}
@@ -0,0 +1,141 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.event.SelectionChangedEvent;
+import be.mobile.rngenius.generator.sampler.OptionSampler;
+import be.mobile.rngenius.generator.sampler.SamplerCache;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.selection.model.OptionSelectionSummary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class SamplerCacheTest {
+
+  @Mock private OptionRepository optionRepository;
+
+  @InjectMocks private SamplerCache samplerCache;
+
+  private List<Option> options;
+
+  @BeforeEach
+  public void setUp() {
+    options = new ArrayList<>();
+    for (long id = 1; id <= 3; id++) {
+      Option option = new Option("Option " + id, new ArrayList<>(), "Description " + id);
+      option.id = id;
+      options.add(option);
+    }
+  }
+
+  @Test
+  void givenCachedSampler_whenSelectionChanges_thenOnlyThatWeightIsUpdated() {
+    // given
+    OptionSampler sampler = new OptionSampler(1L, options, new long[] {1, 1, 1});
+    samplerCache.get(1L, () -> sampler);
+    when(optionRepository.findOptionSelectionSummaryById(2L)).thenReturn(summary(2L, true, 0));
+
+    // when
+    samplerCache.onSelectionChanged(new SelectionChangedEvent(1L, 2L));
+
+    // then
+    assertSame(sampler, samplerCache.get(1L, () -> fail("Sampler should stay cached")));
+    assertNull(sampler.getOption(2L));
+    assertArrayEquals(new long[] {1, 3}, sampler.getOptionIds());
+    SplittableRandom random = new SplittableRandom(3);
+    for (int i = 0; i < 1_000; i++) {
+      assertNotEquals(2L, sampler.sample(random).id);
+    }
+  }
+
+  @Test
+  void givenUnknownOption_whenSelectionChanges_thenSamplerIsInvalidated() {
+    // given
+    OptionSampler sampler = new OptionSampler(1L, options.subList(0, 2), new long[] {1, 1});
+    samplerCache.get(1L, () -> sampler);
+    when(optionRepository.findOptionSelectionSummaryById(3L)).thenReturn(summary(3L, false, 2));
+    OptionSampler rebuilt = new OptionSampler(1L, options, new long[] {1, 1, 3});
+
+    // when
+    samplerCache.onSelectionChanged(new SelectionChangedEvent(1L, 3L));
+
+    // then
+    assertSame(rebuilt, samplerCache.get(1L, () -> rebuilt));
+  }
+
+  @Test
+  void givenNoCachedSampler_whenSelectionChanges_thenNothingIsLoaded() {
+    // when
+    samplerCache.onSelectionChanged(new SelectionChangedEvent(1L, 2L));
+
+    // then
+    verifyNoInteractions(optionRepository);
+  }
+
+  @Test
+  void givenInvalidationDuringLoad_whenLoaded_thenSamplerIsNotCached() {
+    // given
+    OptionSampler stale = new OptionSampler(1L, options, new long[] {1, 1, 1});
+    OptionSampler fresh = new OptionSampler(1L, options, new long[] {1, 1, 3});
+
+    // when
+    samplerCache.get(
+        1L,
+        () -> {
+          samplerCache.invalidate(1L);
+          return stale;
+        });
+
+    // then
+    assertSame(fresh, samplerCache.get(1L, () -> fresh));
+    assertSame(fresh, samplerCache.get(1L, () -> fail("Sampler should be cached")));
+  }
+
+  @Test
+  void givenSelectionChangeDuringLoad_whenLoaded_thenSamplerIsNotCached() {
+    // given
+    OptionSampler stale = new OptionSampler(1L, options, new long[] {1, 1, 1});
+    OptionSampler fresh = new OptionSampler(1L, options, new long[] {1, 3, 1});
+
+    // when
+    samplerCache.get(
+        1L,
+        () -> {
+          samplerCache.onSelectionChanged(new SelectionChangedEvent(1L, 2L));
+          return stale;
+        });
+
+    // then
+    assertSame(fresh, samplerCache.get(1L, () -> fresh));
+    verifyNoInteractions(optionRepository);
+  }
+
+  private OptionSelectionSummary summary(Long optionId, boolean excluded, long timesFavorised) {
+    return new OptionSelectionSummary() {
+      @Override
+      public Long getOptionId() {
+        return optionId;
+      }
+
+      @Override
+      public boolean getExcluded() {
+        return excluded;
+      }
+
+      @Override
+      public long getTimesFavorised() {
+        return timesFavorised;
+      }
+    };
+  }
+}
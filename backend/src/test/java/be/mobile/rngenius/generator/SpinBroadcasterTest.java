@@ -0,0 +1,162 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.event.ActivityType;
+import be.mobile.rngenius.generator.event.GeneratorActivity;
+import be.mobile.rngenius.generator.event.GeneratorActivityEvent;
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.spin.SpinBroadcaster;
+import be.mobile.rngenius.result.model.Result;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+@ExtendWith(MockitoExtension.class)
+public class SpinBroadcasterTest {
+
+  @Mock private NativeWebSocketSession session;
+
+  @Mock private NativeWebSocketSession otherSession;
+
+  @Mock private Session nativeSession;
+
+  @Mock private Session otherNativeSession;
+
+  @Mock private RemoteEndpoint.Async remote;
+
+  @Mock private RemoteEndpoint.Async otherRemote;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private SpinBroadcaster spinBroadcaster;
+
+  @BeforeEach
+  public void setUp() {
+    spinBroadcaster = new SpinBroadcaster(objectMapper, 2);
+    mockSession(session, "1", 1L, nativeSession, remote);
+    mockSession(otherSession, "2", 2L, otherNativeSession, otherRemote);
+    spinBroadcaster.register(1L, session);
+    spinBroadcaster.register(1L, otherSession);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    spinBroadcaster.close();
+  }
+
+  @Test
+  void givenRegisteredSession_whenResultsAreDrawn_thenSpinIsSentToGeneratorSessionsOnly()
+      throws Exception {
+    // given
+    spinBroadcaster.unregister(1L, otherSession);
+    spinBroadcaster.register(2L, otherSession);
+    Result result = new Result();
+    result.id = 7L;
+
+    // when
+    spinBroadcaster.onResultsDrawn(new ResultsDrawnEvent(1L, List.of(result), Set.of(), Set.of()));
+
+    // then
+    ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+    verify(remote, timeout(1000)).sendText(message.capture(), any());
+    JsonNode spin = objectMapper.readTree(message.getValue());
+    assertEquals("SPIN", spin.get("type").asText());
+    assertEquals(1L, spin.get("generatorId").asLong());
+    assertEquals(7L, spin.get("results").get(0).get("id").asLong());
+    assertTrue(spin.get("serverTime").asLong() > 0);
+    verify(otherRemote, never()).sendText(anyString(), any());
+  }
+
+  @Test
+  void givenUnregisteredSession_whenResultsAreDrawn_thenNothingIsSent() throws Exception {
+    // given
+    spinBroadcaster.unregister(1L, session);
+
+    // when
+    spinBroadcaster.onResultsDrawn(
+        new ResultsDrawnEvent(1L, List.of(new Result()), Set.of(), Set.of()));
+
+    // then
+    assertEquals(1, spinBroadcaster.sessionCount());
+    verify(otherRemote, timeout(1000)).sendText(anyString(), any());
+    verify(remote, never()).sendText(anyString(), any());
+  }
+
+  @Test
+  void givenStuckSocket_whenMessagesAreSent_thenTheyQueueInOrderWithoutBlockingOthers()
+      throws Exception {
+    // given
+    ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+
+    // when
+    spinBroadcaster.send(1L, session, new TextMessage("first"));
+    spinBroadcaster.send(1L, session, new TextMessage("second"));
+    spinBroadcaster.send(1L, otherSession, new TextMessage("other"));
+
+    // then
+    verify(otherRemote, timeout(1000)).sendText(eq("other"), any());
+    verify(remote, timeout(1000)).sendText(eq("first"), handler.capture());
+    verify(remote, never()).sendText(eq("second"), any());
+    handler.getValue().onResult(new SendResult());
+    verify(remote, timeout(1000)).sendText(eq("second"), any());
+  }
+
+  @Test
+  void givenParticipantLeft_whenActivityIsPublished_thenOnlyTheirSocketIsClosed() throws Exception {
+    // when
+    spinBroadcaster.onActivity(
+        new GeneratorActivityEvent(
+            Set.of(1L, 2L), new GeneratorActivity(ActivityType.PARTICIPANT_LEFT, 1L, 2L)));
+
+    // then
+    verify(otherSession, timeout(1000)).close(CloseStatus.POLICY_VIOLATION);
+    verify(session, never()).close(any());
+    assertEquals(1, spinBroadcaster.sessionCount());
+  }
+
+  @Test
+  void givenDeletedGenerator_whenActivityIsPublished_thenEverySocketIsClosed() throws Exception {
+    // when
+    spinBroadcaster.onActivity(
+        new GeneratorActivityEvent(
+            Set.of(1L, 2L), new GeneratorActivity(ActivityType.GENERATOR_DELETED, 1L, null)));
+
+    // then
+    verify(session, timeout(1000)).close(CloseStatus.POLICY_VIOLATION);
+    verify(otherSession, timeout(1000)).close(CloseStatus.POLICY_VIOLATION);
+    assertEquals(0, spinBroadcaster.sessionCount());
+  }
+
+  private void mockSession(
+      NativeWebSocketSession session,
+      String id,
+      Long userId,
+      Session nativeSession,
+      RemoteEndpoint.Async remote) {
+    when(session.getId()).thenReturn(id);
+    // only read when deciding which sockets to close
+    lenient().when(session.getAttributes()).thenReturn(Map.of("userId", userId));
+    when(session.getNativeSession(Session.class)).thenReturn(nativeSession);
+    when(nativeSession.getAsyncRemote()).thenReturn(remote);
+  }
+}
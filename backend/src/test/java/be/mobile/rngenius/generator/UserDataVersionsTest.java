@@ -0,0 +1,104 @@
+package be.mobile.rngenius.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.service.GeneratorService;
+import be.mobile.rngenius.generator.service.UserDataVersions;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.user.model.User;
+import be.mobile.rngenius.user.repo.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class UserDataVersionsTest {
+
+  @Autowired private UserDataVersions userDataVersions;
+
+  @Autowired private GeneratorService generatorService;
+
+  @Autowired private GeneratorRepository generatorRepository;
+
+  @Autowired private UserRepository userRepository;
+
+  private Long generatorId;
+
+  private Long ownerId;
+
+  private Long participantId;
+
+  private Long outsiderId;
+
+  private String participantEmail;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    String suffix = System.nanoTime() + "@versions.be";
+    ownerId = userRepository.save(new User("Owner", "Test", "owner" + suffix, "Test123!")).id;
+    participantEmail = "participant" + suffix;
+    participantId =
+        userRepository.save(new User("Participant", "Test", participantEmail, "Test123!")).id;
+    outsiderId =
+        userRepository.save(new User("Outsider", "Test", "outsider" + suffix, "Test123!")).id;
+    generatorService.addGenerator(new Generator("Versions", 1), ownerId);
+    generatorId = generatorRepository.findGeneratorsByUserId(ownerId).get(0).id;
+    addOption("First");
+  }
+
+  @Test
+  void givenNoChanges_whenGettingETag_thenTagIsStableAndQuoted() {
+    // when
+    String eTag = userDataVersions.eTag(ownerId);
+
+    // then
+    assertEquals(eTag, userDataVersions.eTag(ownerId));
+    assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+  }
+
+  @Test
+  void givenParticipantAdded_whenGettingETags_thenOnlyAffectedUsersGetANewTag() throws Exception {
+    // given
+    String owner = userDataVersions.eTag(ownerId);
+    String participant = userDataVersions.eTag(participantId);
+    String outsider = userDataVersions.eTag(outsiderId);
+
+    // when
+    generatorService.addGeneratorParticipant(generatorId, participantEmail, ownerId);
+
+    // then
+    assertNotEquals(owner, userDataVersions.eTag(ownerId));
+    assertNotEquals(participant, userDataVersions.eTag(participantId));
+    assertEquals(outsider, userDataVersions.eTag(outsiderId));
+  }
+
+  @Test
+  void givenOlderOptionDeleted_whenGettingETag_thenTagDiffersFromEveryEarlierOne() throws Exception {
+    // given
+    String before = userDataVersions.eTag(ownerId);
+    addOption("Second");
+    String added = userDataVersions.eTag(ownerId);
+    Long optionId = generatorService.getGeneratorDetail(generatorId, ownerId).options.get(0).id;
+
+    // when
+    generatorService.deleteCategorizedGeneratorOption(optionId, "Category", ownerId);
+
+    // then
+    String deleted = userDataVersions.eTag(ownerId);
+    assertNotEquals(before, added);
+    assertNotEquals(before, deleted);
+    assertNotEquals(added, deleted);
+  }
+
+  private void addOption(String name) throws Exception {
+    generatorService.addGeneratorOption(
+        generatorId,
+        new Option(name, new ArrayList<>(List.of("Category")), "Description"),
+        ownerId);
+  }
+}
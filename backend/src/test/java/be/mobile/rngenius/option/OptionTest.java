@@ -4,12 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import be.mobile.rngenius.category.model.Category;
 import be.mobile.rngenius.option.model.Option;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.AfterAll;
@@ -93,8 +95,11 @@ public class OptionTest {
 
   @Test
   void givenValidCategory_whenRemovingCategory_thenCategoryIsRemoved() {
-    String categoryToRemove = "Category1";
+    Category categoryToRemove = new Category("Category1", null);
+    validOption.setCategorySet(
+        new LinkedHashSet<>(List.of(categoryToRemove, new Category("Category2", null))));
     validOption.removeCategory(categoryToRemove);
-    assertTrue(!validOption.getCategories().contains(categoryToRemove));
+    assertTrue(!validOption.getCategories().contains("Category1"));
+    assertEquals(List.of("Category2"), validOption.getCategories());
   }
 }
@@ -0,0 +1,150 @@
+package be.mobile.rngenius.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.option.repo.OptionRepository;
+import be.mobile.rngenius.participant.repo.ParticipantRepository;
+import be.mobile.rngenius.result.log.ResultLog;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.model.ResultHead;
+import be.mobile.rngenius.result.store.LogResultStore;
+import be.mobile.rngenius.user.model.User;
+import be.mobile.rngenius.user.repo.UserRepository;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class LogResultStoreTest {
+
+  @Mock private OptionRepository optionRepository;
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private ParticipantRepository participantRepository;
+
+  @TempDir private Path directory;
+
+  private ResultLog log;
+
+  private LogResultStore logResultStore;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    log = new ResultLog(directory, 16, "epoch");
+    logResultStore =
+        new LogResultStore(log, optionRepository, userRepository, participantRepository);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+    log.close();
+  }
+
+  @Test
+  void givenCommittedDraw_whenSaving_thenResultsAreAppendedAtCommit() {
+    // given
+    List<Result> results = List.of(result(), result());
+
+    // when
+    logResultStore.saveAll(results);
+
+    // then
+    assertEquals(1L, log.getNextId());
+    assertNull(results.get(0).id);
+    TransactionSynchronizationUtils.triggerAfterCommit();
+    assertEquals(3L, log.getNextId());
+    assertEquals(1L, results.get(0).id);
+    assertEquals(2L, results.get(1).id);
+  }
+
+  @Test
+  void givenRolledBackDraw_whenSaving_thenNothingIsAppended() {
+    // given
+    List<Result> results = List.of(result());
+
+    // when
+    logResultStore.saveAll(results);
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+        TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // then
+    assertEquals(1L, log.getNextId());
+    assertNull(results.get(0).id);
+  }
+
+  @Test
+  void givenRolledBackPurge_whenDeletingOldest_thenLogIsNotTruncated() {
+    // given
+    TransactionSynchronizationManager.clearSynchronization();
+    logResultStore.saveAll(List.of(result(), result()));
+    TransactionSynchronizationManager.initSynchronization();
+    List<ResultHead> oldest = new ArrayList<>(logResultStore.findOldest(2));
+
+    // when
+    logResultStore.deleteOldest(oldest);
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+        TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // then
+    assertEquals(1L, log.getHead());
+    assertEquals(2, logResultStore.findOldest(10).size());
+  }
+
+  @Test
+  void givenBurstBiggerThanAPage_whenPagingAfter_thenPagesGoOnOldestFirst() {
+    // given
+    TransactionSynchronizationManager.clearSynchronization();
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Result result = result();
+      result.setGeneratorId(i % 2 == 0 ? 1L : 2L);
+      results.add(result);
+    }
+    logResultStore.saveAll(results);
+    TransactionSynchronizationManager.initSynchronization();
+    when(participantRepository.findNotifiedGeneratorIdsByUserId(1L)).thenReturn(List.of(1L, 2L));
+    when(optionRepository.findAllById(any())).thenReturn(List.of(results.get(0).getOption()));
+    when(userRepository.findAllById(any())).thenReturn(List.of(results.get(0).getUser()));
+
+    // when
+    List<Result> firstPage = logResultStore.findNotifiedResultsAfter(1L, 0, 30);
+    List<Result> secondPage = logResultStore.findNotifiedResultsAfter(1L, firstPage.get(29).id, 30);
+
+    // then
+    assertEquals(30, firstPage.size());
+    assertEquals(20, secondPage.size());
+    assertEquals(1L, firstPage.get(0).id);
+    assertEquals(31L, secondPage.get(0).id);
+    assertEquals(50L, secondPage.get(19).id);
+  }
+
+  private Result result() {
+    Option option = new Option("Option", new ArrayList<>(List.of("Category")), "Description");
+    option.id = 1L;
+    User user = new User();
+    user.id = 1L;
+    Result result = new Result();
+    result.setGeneratorId(1L);
+    result.setOption(option);
+    result.setUser(user);
+    result.setDateTime(LocalDateTime.now());
+    return result;
+  }
+}
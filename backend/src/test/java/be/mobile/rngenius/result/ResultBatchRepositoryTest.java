@@ -0,0 +1,64 @@
+package be.mobile.rngenius.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.repo.GeneratorRepository;
+import be.mobile.rngenius.generator.service.GeneratorService;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.result.repo.ResultRepository;
+import be.mobile.rngenius.user.model.User;
+import be.mobile.rngenius.user.repo.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class ResultBatchRepositoryTest {
+
+  @Autowired private ResultRepository resultRepository;
+
+  @Autowired private GeneratorService generatorService;
+
+  @Autowired private GeneratorRepository generatorRepository;
+
+  @Autowired private UserRepository userRepository;
+
+  @Test
+  void givenBatch_whenInserting_thenEveryResultGetsItsOwnId() throws Exception {
+    // given
+    User user =
+        userRepository.save(
+            new User("Batch", "Test", "batch" + System.nanoTime() + "@batch.be", "Test123!"));
+    generatorService.addGenerator(new Generator("Batch", 1), user.id);
+    Long generatorId = generatorRepository.findGeneratorsByUserId(user.id).get(0).id;
+    generatorService.addGeneratorOption(
+        generatorId, new Option("Option", new ArrayList<>(List.of("Category")), ""), user.id);
+    Option option = new Option();
+    option.id = generatorService.getGeneratorDetail(generatorId, user.id).options.get(0).id;
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Result result = new Result();
+      result.setGeneratorId(generatorId);
+      result.setOption(option);
+      result.setUser(user);
+      result.setDateTime(LocalDateTime.now());
+      result.setSeed((long) i);
+      results.add(result);
+    }
+
+    // when
+    resultRepository.insertAllInBatch(results);
+
+    // then
+    assertEquals(3, results.stream().map(result -> result.id).distinct().count());
+    for (Result result : results) {
+      assertEquals(result.getSeed(), resultRepository.findById(result.id).orElseThrow().getSeed());
+    }
+  }
+}
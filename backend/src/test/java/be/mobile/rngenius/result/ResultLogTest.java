@@ -0,0 +1,229 @@
+package be.mobile.rngenius.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.result.log.LoggedResult;
+import be.mobile.rngenius.result.log.ResultLog;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResultLogTest {
+
+  private static final String HASH =
+      "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+  private static final String EPOCH = "e6c4a2b0-5f1d-4c3e-9a7b-2d8f0c1e3b5a";
+
+  @TempDir private Path directory;
+
+  @Test
+  void givenAppendedResults_whenReading_thenTheyAreReturnedById() throws Exception {
+    // given
+    LocalDateTime drawnAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789);
+    try (ResultLog log = new ResultLog(directory, 10, EPOCH)) {
+      long first =
+          log.append(
+              List.of(
+                  new LoggedResult(0, 1L, 11L, 21L, drawnAt, 42L, 0L, HASH),
+                  new LoggedResult(0, 1L, 12L, 21L, drawnAt, null, null, null)));
+
+      // when
+      LoggedResult verifiable = log.read(first);
+      LoggedResult random = log.read(first + 1);
+
+      // then
+      assertEquals(1L, first);
+      assertEquals(new LoggedResult(1L, 1L, 11L, 21L, drawnAt, 42L, 0L, HASH), verifiable);
+      assertEquals(new LoggedResult(2L, 1L, 12L, 21L, drawnAt, null, null, null), random);
+      assertNull(log.read(3L));
+    }
+  }
+
+  @Test
+  void givenSeveralGenerators_whenGettingNewest_thenOnlyThatGeneratorIsPagedNewestFirst()
+      throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      for (int i = 0; i < 10; i++) {
+        log.append(List.of(result(i % 2 == 0 ? 1L : 2L)));
+      }
+
+      // when
+      List<Long> firstPage = log.newest(1L, Long.MAX_VALUE, 0, 3);
+      List<Long> secondPage = log.newest(1L, firstPage.get(2), 0, 3);
+      List<Long> after = log.newest(2L, Long.MAX_VALUE, 6, 10);
+
+      // then
+      assertEquals(List.of(9L, 7L, 5L), firstPage);
+      assertEquals(List.of(3L, 1L), secondPage);
+      assertEquals(List.of(10L, 8L), after);
+    }
+  }
+
+  @Test
+  void givenFullSegment_whenAppending_thenNewSegmentIsStarted() throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+
+      // when
+      log.append(List.of(result(1L), result(1L), result(1L), result(1L), result(1L)));
+      log.append(List.of(result(1L), result(1L), result(1L), result(1L)));
+
+      // then
+      assertEquals(3, segmentCount());
+      assertEquals(10L, log.getNextId());
+      assertEquals(9L, log.read(9L).id());
+    }
+  }
+
+  @Test
+  void givenReopenedLog_whenReading_thenResultsAndIndexAreRecovered() throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      log.append(List.of(result(1L), result(2L), result(1L), result(2L), result(1L)));
+      log.awaitDurable(5L);
+    }
+
+    // when
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      long next = log.append(List.of(result(1L)));
+
+      // then
+      assertEquals(6L, next);
+      assertEquals(List.of(6L, 5L, 3L, 1L), log.newest(1L, Long.MAX_VALUE, 0, 10));
+      assertEquals(2L, log.read(4L).generatorId());
+    }
+  }
+
+  @Test
+  void givenTornRecord_whenReopening_thenLogEndsBeforeIt() throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 10, EPOCH)) {
+      log.append(List.of(result(1L), result(1L), result(1L)));
+    }
+    try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+      // flip a byte of the option id of the second record
+      file.seek(16 + 112 + 16);
+      file.write(0x7f);
+    }
+
+    // when
+    try (ResultLog log = new ResultLog(directory, 10, EPOCH)) {
+
+      // then
+      assertEquals(2L, log.getNextId());
+      assertNull(log.read(3L));
+      assertEquals(List.of(1L), log.newest(1L, Long.MAX_VALUE, 0, 10));
+    }
+  }
+
+  @Test
+  void givenTruncatedLog_whenReopening_thenOldResultsAndSegmentsStayGone() throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      for (int i = 0; i < 10; i++) {
+        log.append(List.of(result(1L)));
+      }
+
+      // when
+      log.truncateBefore(6L);
+
+      // then
+      assertNull(log.read(5L));
+      assertEquals(6L, log.oldest(1).get(0).id());
+      assertEquals(List.of(10L, 9L, 8L, 7L, 6L), log.newest(1L, Long.MAX_VALUE, 0, 10));
+      assertEquals(2, segmentCount());
+    }
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      assertEquals(6L, log.getHead());
+      assertEquals(5, log.oldest(10).size());
+      assertEquals(List.of(10L, 9L, 8L, 7L, 6L), log.newest(1L, Long.MAX_VALUE, 0, 10));
+    }
+  }
+
+  @Test
+  void givenLogOfAnotherDatabase_whenReopening_thenItStartsOver() throws Exception {
+    // given
+    try (ResultLog log = new ResultLog(directory, 4, EPOCH)) {
+      log.append(List.of(result(1L), result(1L), result(1L), result(1L), result(1L)));
+      log.truncateBefore(2L);
+    }
+
+    // when
+    try (ResultLog log = new ResultLog(directory, 4, "a fresh database")) {
+
+      // then
+      assertEquals(1L, log.getHead());
+      assertEquals(1L, log.getNextId());
+      assertNull(log.read(2L));
+      assertEquals(List.of(), log.newest(1L, Long.MAX_VALUE, 0, 10));
+      assertEquals(0, segmentCount());
+      assertEquals(1L, log.append(List.of(result(1L))));
+    }
+    try (ResultLog log = new ResultLog(directory, 4, "a fresh database")) {
+      assertEquals(2L, log.getNextId());
+    }
+  }
+
+  @Test
+  void givenConcurrentAppends_whenAwaitingDurable_thenEveryResultIsKeptOnce() throws Exception {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (ResultLog log = new ResultLog(directory, 64, EPOCH)) {
+      List<Future<Long>> appends = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        long generatorId = i % 4;
+        appends.add(
+            executor.submit(
+                () -> {
+                  long first = log.append(List.of(result(generatorId), result(generatorId)));
+                  log.awaitDurable(first + 1);
+                  return first;
+                }));
+      }
+
+      // when
+      List<Long> firsts = new ArrayList<>();
+      for (Future<Long> append : appends) {
+        firsts.add(append.get());
+      }
+
+      // then
+      assertEquals(200, firsts.stream().distinct().count());
+      assertEquals(401L, log.getNextId());
+      for (long generatorId = 0; generatorId < 4; generatorId++) {
+        assertEquals(100, log.newest(generatorId, Long.MAX_VALUE, 0, 1000).size());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    try (ResultLog log = new ResultLog(directory, 64, EPOCH)) {
+      assertEquals(400, log.oldest(1000).size());
+    }
+  }
+
+  private LoggedResult result(long generatorId) {
+    return new LoggedResult(0, generatorId, 1L, 1L, LocalDateTime.now(), null, null, null);
+  }
+
+  private long segmentCount() throws IOException {
+    return segments().size();
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(".log")).sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package be.mobile.rngenius.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.result.model.ResultHead;
+import be.mobile.rngenius.result.service.ResultRetention;
+import be.mobile.rngenius.result.store.ResultStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class ResultRetentionTest {
+
+  @Mock private ResultStore resultStore;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ResultRetention resultRetention;
+
+  private LocalDateTime expired;
+
+  @BeforeEach
+  public void setUp() {
+    resultRetention =
+        new ResultRetention(
+            resultStore,
+            new TransactionTemplate(transactionManager),
+            meterRegistry,
+            Duration.ofDays(30),
+            3,
+            10);
+    expired = LocalDateTime.now().minusDays(40);
+  }
+
+  @Test
+  void givenExpiredResults_whenPurging_thenTheyAreDeletedInBatches() {
+    // given
+    when(resultStore.findOldest(3))
+        .thenReturn(
+            List.of(
+                head(1L, 1L, expired), head(2L, 1L, expired), head(3L, 2L, expired.plusDays(1))))
+        .thenReturn(List.of(head(4L, 1L, expired.plusDays(1)), head(5L, 1L, LocalDateTime.now())));
+
+    // when
+    long deleted = resultRetention.purge();
+
+    // then
+    assertEquals(4, deleted);
+    verify(resultStore).deleteOldest(argThat(heads -> ids(heads).equals(List.of(1L, 2L, 3L))));
+    verify(resultStore).deleteOldest(argThat(heads -> ids(heads).equals(List.of(4L))));
+    verify(resultStore, times(2)).findOldest(anyInt());
+    assertEquals(4, meterRegistry.counter("rngenius.results.reclaimed").count());
+  }
+
+  @Test
+  void givenOnlyRecentResults_whenPurging_thenNothingIsDeleted() {
+    // given
+    when(resultStore.findOldest(3)).thenReturn(List.of(head(1L, 1L, LocalDateTime.now())));
+
+    // when
+    long deleted = resultRetention.purge();
+
+    // then
+    assertEquals(0, deleted);
+    verify(resultStore, never()).deleteOldest(any());
+  }
+
+  private List<Long> ids(List<ResultHead> heads) {
+    return heads.stream().map(ResultHead::getId).toList();
+  }
+
+  private ResultHead head(Long id, Long optionId, LocalDateTime dateTime) {
+    return new ResultHead() {
+      public Long getId() {
+        return id;
+      }
+
+      public Long getOptionId() {
+        return optionId;
+      }
+
+      public Long getGeneratorId() {
+        return 1L;
+      }
+
+      public LocalDateTime getDateTime() {
+        return dateTime;
+      }
+    };
+  }
+}
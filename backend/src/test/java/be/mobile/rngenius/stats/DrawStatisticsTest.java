@@ -0,0 +1,167 @@
+package be.mobile.rngenius.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import be.mobile.rngenius.generator.event.ResultsDrawnEvent;
+import be.mobile.rngenius.generator.model.Generator;
+import be.mobile.rngenius.generator.model.response.GeneratorStatsRes;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.result.model.Result;
+import be.mobile.rngenius.stats.model.OptionStats;
+import be.mobile.rngenius.stats.repo.DailyDrawsRepository;
+import be.mobile.rngenius.stats.repo.OptionStatsRepository;
+import be.mobile.rngenius.stats.service.DrawStatistics;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class DrawStatisticsTest {
+
+  @Mock private OptionStatsRepository optionStatsRepository;
+
+  @Mock private DailyDrawsRepository dailyDrawsRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private DrawStatistics drawStatistics;
+
+  private Generator generator;
+
+  private Option option1;
+
+  private Option option2;
+
+  @BeforeEach
+  public void setUp() {
+    drawStatistics =
+        new DrawStatistics(
+            optionStatsRepository,
+            dailyDrawsRepository,
+            new TransactionTemplate(transactionManager));
+    generator = new Generator();
+    generator.id = 1L;
+    option1 = new Option("Option 1", new ArrayList<>(List.of("Category")), "Description 1");
+    option1.id = 1L;
+    option2 = new Option("Option 2", new ArrayList<>(List.of("Category")), "Description 2");
+    option2.id = 2L;
+    generator.setOptions(List.of(option1, option2));
+  }
+
+  @Test
+  void givenUnflushedDraws_whenGettingStats_thenTheyAreAddedToStoredStats() {
+    // given
+    OptionStats stored = new OptionStats(option1.id, generator.id);
+    stored.addDraws(3, LocalDateTime.now().minusDays(2));
+    when(optionStatsRepository.findOptionStatsByGeneratorId(generator.id))
+        .thenReturn(List.of(stored));
+    drawStatistics.onResultsDrawn(draw(option1, option1, option2));
+
+    // when
+    GeneratorStatsRes stats = drawStatistics.getStats(generator, 7);
+
+    // then
+    assertEquals(6, stats.draws);
+    assertEquals(5, stats.options.get(0).draws);
+    assertEquals(1, stats.options.get(1).draws);
+    assertTrue(stats.options.get(0).lastDrawnAt.isAfter(LocalDateTime.now().minusMinutes(1)));
+    assertEquals(1, stats.days.size());
+    assertEquals(LocalDate.now(), stats.days.get(0).date);
+    assertEquals(3, stats.days.get(0).draws);
+  }
+
+  @Test
+  void givenDraws_whenFlushing_thenCountsAreAddedOnce() {
+    // given
+    when(optionStatsRepository.addDraws(anyLong(), anyLong(), any())).thenReturn(1);
+    when(dailyDrawsRepository.addDraws(anyLong(), any(), anyLong())).thenReturn(1);
+    drawStatistics.onResultsDrawn(draw(option1, option1, option2));
+
+    // when
+    drawStatistics.flush();
+    drawStatistics.flush();
+
+    // then
+    verify(optionStatsRepository, times(1)).addDraws(eq(option1.id), eq(2L), any());
+    verify(optionStatsRepository, times(1)).addDraws(eq(option2.id), eq(1L), any());
+    verify(dailyDrawsRepository, times(1)).addDraws(generator.id, LocalDate.now(), 3L);
+    verify(optionStatsRepository, never()).insertIfAbsent(anyLong(), anyLong());
+    verify(dailyDrawsRepository, never()).insertIfAbsent(anyLong(), any());
+  }
+
+  @Test
+  void givenNoStoredRows_whenFlushing_thenRowsAreInsertedBeforeAdding() {
+    // given
+    when(optionStatsRepository.addDraws(eq(option1.id), eq(1L), any())).thenReturn(0, 1);
+    when(dailyDrawsRepository.addDraws(generator.id, LocalDate.now(), 1L)).thenReturn(0, 1);
+    drawStatistics.onResultsDrawn(draw(option1));
+
+    // when
+    drawStatistics.flush();
+
+    // then
+    verify(optionStatsRepository).insertIfAbsent(option1.id, generator.id);
+    verify(dailyDrawsRepository).insertIfAbsent(generator.id, LocalDate.now());
+    verify(optionStatsRepository, times(2)).addDraws(eq(option1.id), eq(1L), any());
+    verify(dailyDrawsRepository, times(2)).addDraws(generator.id, LocalDate.now(), 1L);
+  }
+
+  @Test
+  void givenFlushedCounter_whenDrawnAgain_thenOnlyTheNewDrawsAreAdded() {
+    // given
+    when(optionStatsRepository.addDraws(anyLong(), anyLong(), any())).thenReturn(1);
+    when(dailyDrawsRepository.addDraws(anyLong(), any(), anyLong())).thenReturn(1);
+    drawStatistics.onResultsDrawn(draw(option1, option1));
+    drawStatistics.flush();
+    // drops the emptied counter
+    drawStatistics.flush();
+
+    // when
+    drawStatistics.onResultsDrawn(draw(option1));
+    drawStatistics.flush();
+
+    // then
+    verify(optionStatsRepository).addDraws(eq(option1.id), eq(2L), any());
+    verify(optionStatsRepository).addDraws(eq(option1.id), eq(1L), any());
+  }
+
+  @Test
+  void givenFailingStore_whenFlushing_thenDrawsAreKeptForTheNextFlush() {
+    // given
+    drawStatistics.onResultsDrawn(draw(option1));
+    when(optionStatsRepository.addDraws(anyLong(), anyLong(), any()))
+        .thenThrow(new IllegalStateException("down"));
+
+    // when
+    assertThrows(IllegalStateException.class, () -> drawStatistics.flush());
+
+    // then
+    GeneratorStatsRes stats = drawStatistics.getStats(generator, 1);
+    assertEquals(1, stats.options.get(0).draws);
+  }
+
+  private ResultsDrawnEvent draw(Option... options) {
+    List<Result> results = new ArrayList<>();
+    for (Option option : options) {
+      Result result = new Result();
+      result.setGeneratorId(generator.id);
+      result.setOption(option);
+      results.add(result);
+    }
+
+    return new ResultsDrawnEvent(generator.id, results, Set.of(), Set.of());
+  }
+}
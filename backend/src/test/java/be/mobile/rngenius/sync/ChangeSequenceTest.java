@@ -0,0 +1,69 @@
+package be.mobile.rngenius.sync;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import be.mobile.rngenius.category.model.Category;
+import be.mobile.rngenius.option.model.Option;
+import be.mobile.rngenius.sync.model.ChangeSequence;
+import be.mobile.rngenius.sync.model.ChangeSequenceListener;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ChangeSequenceTest {
+
+  @Test
+  void givenManyCalls_whenTakingNext_thenSequenceStrictlyIncreases() {
+    // given
+    long previous = ChangeSequence.next();
+
+    // when
+    for (int i = 0; i < 10_000; i++) {
+      long next = ChangeSequence.next();
+
+      // then
+      assertTrue(next > previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  void givenCurrentTime_whenTakingNext_thenSequenceIsNotBehindTheClock() {
+    // given
+    long now = ChangeSequence.at(Instant.now());
+
+    // when
+    long next = ChangeSequence.next();
+
+    // then
+    assertTrue(next >= now);
+    assertTrue(ChangeSequence.watermark() < now);
+  }
+
+  @Test
+  void givenOption_whenStamped_thenChangeSeqIsSet() {
+    // given
+    Option option = new Option("Option", new ArrayList<>(List.of("Category")), "Description");
+    long before = ChangeSequence.next();
+
+    // when
+    new ChangeSequenceListener().stamp(option);
+
+    // then
+    assertTrue(option.getChangeSeq() > before);
+  }
+
+  @Test
+  void givenStampedOption_whenChangingCategories_thenChangeSeqIsCleared() {
+    // given
+    Option option = new Option("Option", new ArrayList<>(List.of("Category")), "Description");
+    new ChangeSequenceListener().stamp(option);
+
+    // when
+    option.addCategory(new Category("Other", null));
+
+    // then
+    assertNull(option.getChangeSeq());
+  }
+}
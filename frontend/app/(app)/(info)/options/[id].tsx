@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { useLocalSearchParams } from "expo-router";
 import { StyleSheet, SafeAreaView } from "react-native";
-import { Generator, Option, Participant } from "@/types";
+import { Generator, GeneratorOption, Participant } from "@/types";
 import Category from "@/components/generatorInfo/category";
 import { useGeneratorContext } from "../../generatorContext";
 import OptionView from "@/components/generatorInfo/optionView";
@@ -10,24 +10,30 @@ import { useSession } from "@/app/authContext";
 
 interface Category {
   category: string;
-  options: Option[] | undefined;
+  options: GeneratorOption[] | undefined;
 }
 
 export default function GeneratorInfoScreen() {
   const { id } = useLocalSearchParams();
-  const { generators, refetchGenerators, loading } = useGeneratorContext();
+  const { generatorDetails, openGenerator, refetchGenerators, loading } =
+    useGeneratorContext();
   const [generator, setGenerator] = useState<Generator>();
   const [categories, setCategories] = useState<Category[]>();
   const [optionPage, setOptionPage] = useState<boolean>(true);
   const [notifications, setNotifications] = useState<boolean>(false);
   const { session } = useSession();
 
+  useEffect(() => {
+    openGenerator(Number(id));
+    return () => openGenerator(undefined);
+  }, [id]);
+
   useEffect(() => {
     getGenerator();
-  }, [generators, session]);
+  }, [generatorDetails, session]);
 
   const getGenerator = () => {
-    const tempGenerator: Generator | undefined = generators.find(
+    const tempGenerator: Generator | undefined = generatorDetails.find(
       (generator: Generator) => generator.id === Number(id)
     );
     if (tempGenerator) {
@@ -22,7 +22,7 @@ import AsyncStorage from "@react-native-async-storage/async-storage";
 export default function GeneratingScreen() {
   const [generated, setGenerated] = useState(false);
   const { id } = useLocalSearchParams();
-  const { generators, refetchGenerators, checkingResults, loading } =
+  const { generatorDetails, refetchGenerators, checkingResults, loading } =
     useGeneratorContext();
   const [generator, setGenerator] = useState<Generator>();
   const [targetIndex, setTargetIndex] = useState(-1);
@@ -33,10 +33,10 @@ export default function GeneratingScreen() {
 
   useEffect(() => {
     if (!generator) getGenerator();
-  }, [generators]);
+  }, [generatorDetails]);
 
   const getGenerator = () => {
-    const tempGenerator: Generator | undefined = generators.find(
+    const tempGenerator: Generator | undefined = generatorDetails.find(
       (generator: Generator) => generator.id === Number(id)
     );
     if (tempGenerator) {
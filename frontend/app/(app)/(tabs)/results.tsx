@@ -16,7 +16,7 @@ import ResultBox from "@/components/results/resultBox";
 import { useFocusEffect } from "expo-router";
 
 export default function TabResults() {
-  const { results, resultError, checkingResults, loading } =
+  const { results, loadMoreResults, resultError, checkingResults, loading } =
     useGeneratorContext();
   const [isScrollable, setIsScrollable] = useState(false);
   const [viewHeight, setViewHeight] = useState(0);
@@ -61,6 +61,9 @@ export default function TabResults() {
       isBottom = true;
     }
     setIsAtBottom(isBottom);
+    if (isBottom && contentOffset.y > 0) {
+      loadMoreResults();
+    }
   };
 
   return (
@@ -4,16 +4,20 @@ import React, {
   useState,
   useEffect,
   useCallback,
+  useRef,
 } from "react";
 import AsyncStorage from "@react-native-async-storage/async-storage";
 import UserService from "@/service/UserService";
 import { GeneratorService } from "@/service/GeneratorService";
-import { Generator, Result } from "@/types";
+import { Generator, GeneratorSummary, Result } from "@/types";
 import { useSession } from "../authContext";
 
 interface GeneratorContextProps {
-  generators: Generator[];
+  generators: GeneratorSummary[];
+  generatorDetails: Generator[];
+  openGenerator: (id: number | undefined) => void;
   results: Result[];
+  loadMoreResults: () => void;
   generatorError: string;
   resultError: string;
   refetchGenerators: () => void;
@@ -24,16 +28,33 @@ interface GeneratorContextProps {
   loading: boolean;
 }
 
+// The server sends results newest first, this many at a time
+const RESULTS_PAGE_SIZE = 50;
+
+// Pages a poll fetches at most to catch up with the loaded results, past that the older pages are dropped
+const MAX_CATCH_UP_PAGES = 5;
+
+// Result ids are handed out before the draw commits, so a result that commits late can land below the newest loaded one.
+// Polls look back this far past the newest loaded result to pick those up, it matches the server's commit window.
+const LOOK_BACK_MILLIS = 10_000;
+
 const GeneratorContext = createContext<GeneratorContextProps | undefined>(
   undefined
 );
 
 // Provider for the generator context which fetches the user's generators and stores them in the context, it returns the generators, the error message and a function to refetch them
+// The list only holds summaries, the full generator is fetched for the generator that is currently open
 export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
   children,
 }) => {
-  const [generators, setGenerators] = useState<Generator[]>([]);
+  const [generators, setGenerators] = useState<GeneratorSummary[]>([]);
+  const [generatorDetails, setGeneratorDetails] = useState<Generator[]>([]);
+  const generatorDetailsRef = useRef<Generator[]>([]);
+  const openGeneratorId = useRef<number | undefined>(undefined);
   const [results, setResults] = useState<Result[]>([]);
+  const resultsRef = useRef<Result[]>([]);
+  const loadingMoreResults = useRef(false);
+  const noMoreResults = useRef(false);
   const [generatorError, setGeneratorError] = useState("");
   const [resultError, setResultError] = useState("");
   const [latestCheckedResult, setLatestCheckedResult] = useState<Date>(
@@ -44,6 +65,7 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
   );
   const [isCheckingResults, setIsCheckingResults] = useState(false);
   const [loading, setLoading] = useState(false);
+  const generatorsETag = useRef<string | undefined>(undefined);
   const { signOut } = useSession();
 
   useEffect(() => {
@@ -74,20 +96,77 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
     }
   }, [latestCheckedResult]);
 
+  const storeGeneratorDetails = (details: Generator[]) => {
+    generatorDetailsRef.current = details;
+    setGeneratorDetails(details);
+    AsyncStorage.setItem("generators", JSON.stringify(details));
+  };
+
+  const getGeneratorDetail = async (id: number) => {
+    try {
+      const response = await UserService.callApiWithRefreshToken(
+        signOut,
+        GeneratorService.getGenerator,
+        id
+      );
+      if (response.ok) {
+        const generatorData: Generator = await response.json();
+        storeGeneratorDetails([
+          ...generatorDetailsRef.current.filter(
+            (generator) => generator.id !== id
+          ),
+          generatorData,
+        ]);
+      } else if (response.status === 400 || response.status === 403) {
+        // the generator was deleted or the user no longer takes part in it
+        storeGeneratorDetails(
+          generatorDetailsRef.current.filter((generator) => generator.id !== id)
+        );
+      }
+    } catch (error) {
+      const cachedGenerators = await AsyncStorage.getItem("generators");
+      if (
+        cachedGenerators !== null &&
+        generatorDetailsRef.current.length === 0
+      ) {
+        generatorDetailsRef.current = JSON.parse(cachedGenerators);
+        setGeneratorDetails(generatorDetailsRef.current);
+      }
+    }
+  };
+
+  const openGenerator = useCallback((id: number | undefined) => {
+    openGeneratorId.current = id;
+    if (id !== undefined) {
+      getGeneratorDetail(id);
+    }
+  }, []);
+
   const getGenerators = useCallback(async () => {
     try {
       setLoading(true);
       const response = await UserService.callApiWithRefreshToken(
         signOut,
-        GeneratorService.myGenerators
+        GeneratorService.myGenerators,
+        generatorsETag.current
       );
-      if (response.ok) {
+      // 304 means the generators we already have are still up to date
+      if (response.status === 304) {
+        setGeneratorError("");
+      } else if (response.ok) {
         const generatorData = await response.json();
+        generatorsETag.current = response.headers.get("ETag") ?? undefined;
         setGeneratorError("");
         setGenerators(generatorData);
-        AsyncStorage.setItem("generators", JSON.stringify(generatorData));
+        AsyncStorage.setItem(
+          "generatorSummaries",
+          JSON.stringify(generatorData)
+        );
+        if (openGeneratorId.current !== undefined) {
+          await getGeneratorDetail(openGeneratorId.current);
+        }
       } else {
-        const value = await AsyncStorage.getItem("generators");
+        const value = await AsyncStorage.getItem("generatorSummaries");
         if (value !== null) {
           setGenerators(JSON.parse(value));
         } else {
@@ -95,7 +174,7 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
         }
       }
     } catch (error) {
-      const cachedGenerators = await AsyncStorage.getItem("generators");
+      const cachedGenerators = await AsyncStorage.getItem("generatorSummaries");
       if (cachedGenerators !== null) {
         setGenerators(JSON.parse(cachedGenerators));
       } else {
@@ -111,8 +190,58 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
         GeneratorService.myResults
       );
       if (response.ok) {
-        const resultData = await response.json();
-        setResults(resultData);
+        const resultData: Result[] = await response.json();
+        // polling fetches the newest page, then pages back until it is past the loaded results and the look back
+        const loaded = resultsRef.current;
+        const loadedNewestId = loaded.length > 0 ? loaded[0].id : undefined;
+        const lookBackFrom =
+          loaded.length > 0
+            ? new Date(loaded[0].dateTime).getTime() - LOOK_BACK_MILLIS
+            : undefined;
+        const fetched = [...resultData];
+        const caughtUpWith = (oldest: Result) =>
+          loadedNewestId !== undefined &&
+          lookBackFrom !== undefined &&
+          oldest.id <= loadedNewestId &&
+          new Date(oldest.dateTime).getTime() < lookBackFrom;
+        let page = resultData;
+        for (
+          let pages = 1;
+          pages < MAX_CATCH_UP_PAGES &&
+          page.length === RESULTS_PAGE_SIZE &&
+          loadedNewestId !== undefined &&
+          !caughtUpWith(fetched[fetched.length - 1]);
+          pages++
+        ) {
+          const pageResponse = await UserService.callApiWithRefreshToken(
+            signOut,
+            GeneratorService.myResults,
+            fetched[fetched.length - 1].id
+          );
+          if (!pageResponse.ok) {
+            break;
+          }
+          page = await pageResponse.json();
+          fetched.push(...page);
+        }
+
+        if (page.length < RESULTS_PAGE_SIZE) {
+          noMoreResults.current = true;
+          setResults(fetched);
+        } else {
+          noMoreResults.current = false;
+          const oldestId = fetched[fetched.length - 1].id;
+          const caughtUp = caughtUpWith(fetched[fetched.length - 1]);
+          // without catching up there would be a gap, so the older pages are loaded again when scrolling
+          setResults((previous) =>
+            caughtUp
+              ? [
+                  ...fetched,
+                  ...previous.filter((result) => result.id < oldestId),
+                ]
+              : fetched
+          );
+        }
         setResultError("");
         if (resultData.length > 0) {
           const latestResult = resultData.sort(
@@ -129,7 +258,7 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
             new Date(new Date(latestResult.dateTime).toString().slice(0, 24))
           );
         }
-        AsyncStorage.setItem("results", JSON.stringify(resultData));
+        AsyncStorage.setItem("results", JSON.stringify(fetched));
       } else {
         const value = await AsyncStorage.getItem("results");
         if (value !== null) {
@@ -152,6 +281,46 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
     }
   }, [isCheckingResults]);
 
+  useEffect(() => {
+    resultsRef.current = results;
+  }, [results]);
+
+  // Fetches the page of results before the oldest one that is loaded
+  const loadMoreResults = useCallback(async () => {
+    const loaded = resultsRef.current;
+    if (
+      loaded.length === 0 ||
+      loadingMoreResults.current ||
+      noMoreResults.current
+    ) {
+      return;
+    }
+
+    loadingMoreResults.current = true;
+    const oldestId = loaded[loaded.length - 1].id;
+    try {
+      const response = await UserService.callApiWithRefreshToken(
+        signOut,
+        GeneratorService.myResults,
+        oldestId
+      );
+      if (response.ok) {
+        const resultData: Result[] = await response.json();
+        noMoreResults.current = resultData.length < RESULTS_PAGE_SIZE;
+        setResults((previous) => [
+          ...previous,
+          ...resultData.filter(
+            (result) => result.id < previous[previous.length - 1].id
+          ),
+        ]);
+      }
+    } catch (error) {
+      // the next scroll to the bottom tries again
+    } finally {
+      loadingMoreResults.current = false;
+    }
+  }, [signOut]);
+
   useEffect(() => {
     let fetchInterval: NodeJS.Timeout;
     const fetchData = async () => {
@@ -169,7 +338,10 @@ export const GeneratorProvider: React.FC<React.PropsWithChildren<{}>> = ({
     <GeneratorContext.Provider
       value={{
         generators,
+        generatorDetails,
+        openGenerator,
         results,
+        loadMoreResults,
         generatorError,
         resultError,
         refetchGenerators: getGenerators,
@@ -50,7 +50,8 @@ export default function EditGeneratorScreen() {
     number[]
   >([]);
   const [refreshing, setRefreshing] = useState(false);
-  const { generators, refetchGenerators, loading } = useGeneratorContext();
+  const { generatorDetails, refetchGenerators, loading } =
+    useGeneratorContext();
   const { signOut } = useSession();
   const router = useRouter();
   const [permission, requestPermission] = useCameraPermissions();
@@ -61,10 +62,10 @@ export default function EditGeneratorScreen() {
 
   useEffect(() => {
     getGenerator();
-  }, [generators]);
+  }, [generatorDetails]);
 
   const getGenerator = () => {
-    const tempGenerator: Generator | undefined = generators.find(
+    const tempGenerator: Generator | undefined = generatorDetails.find(
       (generator: Generator) => generator.id === Number(id)
     );
     setGenerator(tempGenerator);
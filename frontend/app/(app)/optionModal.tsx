@@ -26,7 +26,8 @@ export default function AddGeneratorScreen() {
   const [error, setError] = useState("");
   const [adding, setAdding] = useState(false);
   const [refreshing, setRefreshing] = useState(false);
-  const { generators, refetchGenerators, loading } = useGeneratorContext();
+  const { generatorDetails, refetchGenerators, loading } =
+    useGeneratorContext();
   const [name, setName] = useState("");
   const [nameError, setNameError] = useState("");
   const [newCategory, setNewCategory] = useState("");
@@ -41,10 +42,10 @@ export default function AddGeneratorScreen() {
 
   useEffect(() => {
     getGenerator();
-  }, [generators]);
+  }, [generatorDetails]);
 
   const getGenerator = () => {
-    const tempGenerator: Generator | undefined = generators.find(
+    const tempGenerator: Generator | undefined = generatorDetails.find(
       (generator: Generator) => generator.id === Number(id)
     );
     if (tempGenerator) {
@@ -7,7 +7,12 @@ import {
   ActivityIndicator,
   Vibration,
 } from "react-native";
-import { Option, Participant, Selection, Generator } from "@/types";
+import {
+  GeneratorOption,
+  Participant,
+  Selection,
+  Generator,
+} from "@/types";
 import OptionBox from "./option";
 import { useEffect, useState } from "react";
 import { FontAwesome } from "@expo/vector-icons";
@@ -19,7 +24,7 @@ import { GeneratorService } from "@/service/GeneratorService";
 interface CategoryProps {
   generatorId: number;
   category: string;
-  options: Option[] | undefined;
+  options: GeneratorOption[] | undefined;
   refetchGenerators: () => void;
   loading: boolean;
   creatorId: number;
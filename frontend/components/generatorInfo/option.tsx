@@ -10,9 +10,8 @@ import {
   Alert,
   ActivityIndicator,
   Vibration,
-  FlatList,
 } from "react-native";
-import { Option, Participant, Selection } from "@/types";
+import { GeneratorOption, Option, Participant, Selection } from "@/types";
 import UserService from "@/service/UserService";
 import { GeneratorService } from "@/service/GeneratorService";
 import AsyncStorage from "@react-native-async-storage/async-storage";
@@ -20,7 +19,7 @@ import { Generator } from "@/types";
 import { useSession } from "@/app/authContext";
 
 interface OptionProps {
-  option: Option;
+  option: GeneratorOption;
   category: string;
   refetchGenerators: () => void;
   loading: boolean;
@@ -28,13 +27,6 @@ interface OptionProps {
   participants: Participant[];
 }
 
-interface FilterdParticipant {
-  id: number;
-  name: string;
-  excluded: boolean;
-  favorised: boolean;
-}
-
 function GenIcon(props: {
   name: React.ComponentProps<typeof FontAwesome>["name"];
   color: string;
@@ -50,9 +42,6 @@ export default function OptionBox(props: OptionProps) {
   const [liking, setLiking] = useState(false);
   const [refreshing, setRefreshing] = useState(false);
   const [contentHeight, setContentHeight] = useState(0);
-  const [filteredParticipants, setFilteredParticipants] = useState<
-    FilterdParticipant[]
-  >([]);
   const { signOut, session } = useSession();
   const findDimensions = (layout: any) => {
     const { height } = layout;
@@ -319,30 +308,6 @@ export default function OptionBox(props: OptionProps) {
     }
   };
 
-  const getFilteredParticipants = (
-    participants: Participant[],
-    session: string,
-    optionId: number
-  ) => {
-    return participants
-      .filter((participant) => participant.user.id.toString() !== session)
-      .map((participant: Participant) => {
-        const selection = participant.selections.find(
-          (selection: Selection) => selection.option.id === optionId
-        );
-        if (selection?.excluded || selection?.favorised) {
-          return {
-            id: participant.id,
-            name: participant.user.firstName + " " + participant.user.lastName,
-            excluded: selection.excluded,
-            favorised: selection.favorised,
-          };
-        }
-        return null;
-      })
-      .filter((participant) => participant !== null);
-  };
-
   useEffect(() => {
     if (refreshing && !props.loading) {
       setDeleting(false);
@@ -352,13 +317,6 @@ export default function OptionBox(props: OptionProps) {
     }
   }, [props.loading]);
 
-  useEffect(() => {
-    const sessionId = session ?? "";
-    setFilteredParticipants(
-      getFilteredParticipants(props.participants, sessionId, props.option.id)
-    );
-  }, [props.participants]);
-
   return (
     <View style={styles.box}>
       <TouchableWithoutFeedback
@@ -376,26 +334,14 @@ export default function OptionBox(props: OptionProps) {
         >
           <Text style={styles.name}>
             {props.option.name} {""}
-            {props.participants.findIndex(
-              (participant: Participant) =>
-                participant.selections.find(
-                  (selection: Selection) =>
-                    selection.option.id === props.option.id
-                )?.excluded
-            ) !== -1 ? (
+            {props.option.excludedCount > 0 ? (
               <FontAwesome
                 name="ban"
                 size={20}
                 color="#7B4444"
                 accessibilityLabel="Excluded"
               />
-            ) : props.participants.findIndex(
-                (participant: Participant) =>
-                  participant.selections.find(
-                    (selection: Selection) =>
-                      selection.option.id === props.option.id
-                  )?.favorised
-              ) !== -1 ? (
+            ) : props.option.favouriteCount > 0 ? (
               <FontAwesome
                 name="thumbs-up"
                 size={20}
@@ -425,41 +371,6 @@ export default function OptionBox(props: OptionProps) {
             <Text style={styles.description}>{props.option.description}</Text>
           )}
           <View style={styles.separator}></View>
-          <View style={{ paddingLeft: 10, paddingBottom: 10 }}>
-            <FlatList
-              scrollEnabled={false}
-              data={filteredParticipants}
-              keyExtractor={(item) => item.id.toString()}
-              renderItem={({ item }) => (
-                <View
-                  key={item.id}
-                  style={{
-                    flexDirection: "row",
-                    alignItems: "center",
-                    marginBottom: 5,
-                  }}
-                >
-                  <Text style={styles.participantName}>{item.name}</Text>
-                  {item.excluded && (
-                    <FontAwesome
-                      name="ban"
-                      size={20}
-                      color="#AD8F8F"
-                      style={{ marginLeft: 5 }}
-                    />
-                  )}
-                  {item.favorised && (
-                    <FontAwesome
-                      name="thumbs-up"
-                      size={20}
-                      color="#AD8F8F"
-                      style={{ marginLeft: 5 }}
-                    />
-                  )}
-                </View>
-              )}
-            />
-          </View>
           <View
             style={{
               flexDirection: "row",
@@ -621,9 +532,4 @@ const styles = StyleSheet.create({
     minWidth: "100%",
     backgroundColor: "#fff",
   },
-  participantName: {
-    fontSize: 16,
-    color: "#AD8F8F",
-    fontFamily: "JaroRegular",
-  },
 });
@@ -72,12 +72,7 @@ export default function OptionView(props: OptionViewProps) {
   const imgSource = getIconsDefault();
 
   const hasNonExcludedOptions = props.generator.options.some(
-    (option) =>
-      !props.generator.participants.some((participant) =>
-        participant.selections.some(
-          (selection) => selection.option.id === option.id && selection.excluded
-        )
-      )
+    (option) => option.excludedCount === 0
   );
 
   const handLeaveGenerator = () => {
@@ -1,11 +1,11 @@
 import FontAwesome from "@expo/vector-icons/FontAwesome";
 import { Text, TouchableOpacity, View, Image, StyleSheet } from "react-native";
-import { Generator } from "@/types";
+import { GeneratorSummary } from "@/types";
 import { Href, router } from "expo-router";
 import { getIconsDefault } from "@/utils/iconData";
 
 interface GeneratorProps {
-  generator: Generator;
+  generator: GeneratorSummary;
   even: boolean;
 }
 
@@ -1,6 +1,21 @@
-const myGenerators = async (token: string) => {
+const myGenerators = async (token: string, eTag?: string) => {
   return fetch(
     encodeURI(process.env.EXPO_PUBLIC_API_URL + `/generator/myGenerators`),
+    {
+      method: "GET",
+      headers: {
+        Accept: "application/json",
+        "Content-Type": "application/json",
+        Authorization: `Bearer ${token}`,
+        ...(eTag ? { "If-None-Match": eTag } : {}),
+      },
+    }
+  );
+};
+
+const getGenerator = async (token: string, generatorId: number) => {
+  return fetch(
+    encodeURI(process.env.EXPO_PUBLIC_API_URL + `/generator/${generatorId}`),
     {
       method: "GET",
       headers: {
@@ -274,9 +289,13 @@ const favoriseCategory = async (
   );
 };
 
-const myResults = async (token: string) => {
+const myResults = async (token: string, before?: number) => {
   return fetch(
-    encodeURI(process.env.EXPO_PUBLIC_API_URL + `/generator/myResults`),
+    encodeURI(
+      process.env.EXPO_PUBLIC_API_URL +
+        `/generator/myResults` +
+        (before ? `?before=${before}` : "")
+    ),
     {
       method: "GET",
       headers: {
@@ -310,6 +329,7 @@ export const toggleNotifications = async (
 
 export const GeneratorService = {
   myGenerators,
+  getGenerator,
   generateOption,
   addGenerator,
   addOption,
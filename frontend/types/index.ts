@@ -10,10 +10,20 @@ export type Generator = {
   title: string;
   iconNumber: number;
   user: User;
-  options: Option[];
+  options: GeneratorOption[];
   participants: Participant[];
 };
 
+export type GeneratorSummary = {
+  id: number;
+  title: string;
+  iconNumber: number;
+  ownerName: string;
+  optionCount: number;
+  participantCount: number;
+  notifications: boolean;
+};
+
 export type Participant = {
   id: number;
   user: User;
@@ -35,9 +45,17 @@ export type Option = {
   categories: string[];
 };
 
+// Options of a generator count everyone's marks but only flag your own
+export type GeneratorOption = Option & {
+  excludedCount: number;
+  favouriteCount: number;
+  excluded: boolean;
+  favorised: boolean;
+};
+
 export type Category = {
   category: string;
-  options: Option[] | undefined;
+  options: GeneratorOption[] | undefined;
 };
 
 export type Result = {